@@ -1,7 +1,10 @@
+import analytics.TicketStore;
 import enums.PaymentMode;
 import enums.VehicleType;
+import helpers.DemandPricingStrategy;
 import helpers.HourlyPricingStrategy;
 import models.*;
+import service.OccupancyTracker;
 import service.PaymentService;
 
 /**
@@ -34,10 +37,18 @@ public class ConcurrentParkingDemo {
         lot.addFloor(floor1);
         lot.addFloor(floor2);
 
-        PaymentService paymentService = new PaymentService(new HourlyPricingStrategy());
+        // Surge pricing driven by lot-wide occupancy
+        OccupancyTracker occupancyTracker = new OccupancyTracker(lot.getTotalSpotsCount());
+        lot.addListener(occupancyTracker);
+
+        PaymentService paymentService = new PaymentService(
+                new DemandPricingStrategy(new HourlyPricingStrategy()), occupancyTracker::getSurgeMultiplier);
+        TicketStore ticketStore = new TicketStore(10_000);
         InfoPortal portal = new InfoPortal(paymentService);
         EntryPanel entry = new EntryPanel();
+        entry.addListener(occupancyTracker);
         ExitPanel exit = new ExitPanel();
+        exit.addListener(ticketStore);
 
         System.out.println("--- Initial Floor 1 Status ---");
         floor1.showDisplay();
@@ -140,6 +151,7 @@ public class ConcurrentParkingDemo {
 
         // Process payments and exits
         System.out.println("\n--- Processing Payments and Exits ---\n");
+        System.out.println("Current surge multiplier: " + occupancyTracker.getSurgeMultiplier());
         for (int i = 0; i < tickets.length; i++) {
             if (tickets[i] != null) {
                 System.out.println("Processing payment and exit for Vehicle-" + i);
@@ -155,6 +167,8 @@ public class ConcurrentParkingDemo {
         System.out.println("Floor 2 Status:");
         floor2.showDisplay();
 
+        ticketStore.report().print();
+
         System.out.println("\n=== Demo Complete ===");
         System.out.println("\nKey Benefits of Vehicle Manager Pattern:");
         System.out.println("1. ✓ Fine-grained locking: Only specific vehicle type managers are locked");
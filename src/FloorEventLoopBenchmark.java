@@ -0,0 +1,109 @@
+import enums.VehicleType;
+import models.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compare the locked managers with the single-writer floor event loop:
+ * 64 gates each park and release vehicles on one floor as fast as they can,
+ * and we report throughput plus p50 / p99 latency per operation
+ */
+public class FloorEventLoopBenchmark {
+    private static final int GATES = 64;
+    private static final int SPOTS = 2_000;
+    private static final int OPS_PER_GATE = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int gates = args.length > 0 ? Integer.parseInt(args[0]) : GATES;
+        int opsPerGate = args.length > 1 ? Integer.parseInt(args[1]) : OPS_PER_GATE;
+        System.out.println("=== Floor Event Loop Benchmark: " + gates + " gates, "
+                + SPOTS + " spots, " + opsPerGate + " park/release pairs per gate ===\n");
+
+        // Warm both paths up before measuring
+        run("warm-up locked", false, gates, opsPerGate / 4, false);
+        run("warm-up event loop", true, gates, opsPerGate / 4, false);
+
+        run("Locked managers", false, gates, opsPerGate, true);
+        run("Event loop", true, gates, opsPerGate, true);
+    }
+
+    private static void run(String label, boolean eventLoop, int gates, int opsPerGate, boolean print)
+            throws InterruptedException {
+        ParkingFloor floor = new ParkingFloor("F1");
+        for (int i = 0; i < SPOTS; i++) {
+            floor.addSpot(new CompactSpot());
+        }
+        FloorEventLoop loop = eventLoop ? new FloorEventLoop(floor).start() : null;
+
+        long[][] latencies = new long[gates][opsPerGate * 2];
+        int[] misses = new int[gates];
+        CountDownLatch ready = new CountDownLatch(gates);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[gates];
+        for (int g = 0; g < gates; g++) {
+            int gate = g;
+            threads[g] = new Thread(() -> {
+                long[] samples = latencies[gate];
+                Vehicle vehicle = new Vehicle("G" + gate, VehicleType.CAR);
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < opsPerGate; i++) {
+                    long start = System.nanoTime();
+                    ParkingTicket ticket = floor.parkAsync(vehicle).join();
+                    long parked = System.nanoTime();
+                    samples[2 * i] = parked - start;
+                    if (ticket == null) {
+                        misses[gate]++;
+                        samples[2 * i + 1] = 0;
+                        continue;
+                    }
+                    floor.releaseAsync(ticket).join();
+                    samples[2 * i + 1] = System.nanoTime() - parked;
+                }
+            }, "gate-" + g);
+            threads[g].start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        double batch = loop != null ? loop.getAverageBatchSize() : 0;
+        if (loop != null) {
+            loop.stop();
+        }
+        if (!print) {
+            return;
+        }
+
+        long[] all = new long[gates * opsPerGate * 2];
+        int missed = 0;
+        for (int g = 0; g < gates; g++) {
+            System.arraycopy(latencies[g], 0, all, g * opsPerGate * 2, opsPerGate * 2);
+            missed += misses[g];
+        }
+        Arrays.sort(all);
+        double seconds = elapsed / 1e9;
+        System.out.println("--- " + label + " ---");
+        System.out.printf("Throughput: %,.0f ops/sec (%,d ops in %.2f s)%n", all.length / seconds, all.length, seconds);
+        System.out.printf("Latency: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, all[all.length - 1] / 1e3);
+        if (loop != null) {
+            System.out.printf("Average batch: %.1f commands%n", batch);
+        }
+        System.out.println("Parks that found no spot: " + missed);
+        System.out.println("Free spots afterwards: " + floor.getAvailableSpotsCount(VehicleType.CAR) + " / " + SPOTS + "\n");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
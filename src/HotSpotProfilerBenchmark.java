@@ -0,0 +1,234 @@
+import analytics.HeavyHitters;
+import analytics.HotSpotProfiler;
+import analytics.ProfileSnapshot;
+import enums.VehicleType;
+import helpers.ManualTimeSource;
+import helpers.TimeSource;
+import models.CompactSpot;
+import models.EntryPanel;
+import models.ExitPanel;
+import models.LargeSpot;
+import models.MotorcycleSpot;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingSpot;
+import models.ParkingTicket;
+import models.Vehicle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drive a 12-floor lot through its gates from several threads, with and without
+ * a {@link HotSpotProfiler} attached, while another thread takes a snapshot
+ * every millisecond. Reports the profiler's cost per vehicle, how many snapshots were
+ * taken mid-ingestion, and how the sketched plate counts compare to exact ones.
+ */
+public class HotSpotProfilerBenchmark {
+    private static final int FLOORS = 12;
+    private static final int THREADS = 4;
+    private static final int VISITS_PER_THREAD = 500_000;
+    private static final int PLATES = 200_000;
+    private static final int REGULARS = 50;
+    private static final int COMMUTERS = 5;
+    private static final long STEP_MILLIS = 5_000;
+    private static final long EPOCH = 1_704_067_200_000L; // 2024-01-01
+
+    public static void main(String[] args) throws InterruptedException {
+        int visits = args.length > 0 ? Integer.parseInt(args[0]) : VISITS_PER_THREAD;
+        System.out.println("=== Hot-Spot Profiler Benchmark: " + THREADS + " threads x " + visits + " visits ===\n");
+
+        for (int round = 0; round < 2; round++) {
+            run("Without profiler", visits, false);
+            run("With profiler", visits, true);
+        }
+    }
+
+    private static void run(String label, int visits, boolean profiled) throws InterruptedException {
+        // Each gate controller runs its own zone of the lot on its own simulated clock,
+        // so a descheduled thread never sees its vehicles' stays stretched by the others
+        ManualTimeSource[] clocks = new ManualTimeSource[THREADS];
+        List<List<EntryPanel>> entries = new ArrayList<>();
+        List<List<ExitPanel>> exits = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            clocks[t] = new ManualTimeSource(EPOCH);
+            entries.add(new ArrayList<>());
+            exits.add(new ArrayList<>());
+        }
+        TimeSource latest = () -> {
+            long now = 0;
+            for (ManualTimeSource clock : clocks) {
+                now = Math.max(now, clock.currentTimeMillis());
+            }
+            return now;
+        };
+        HotSpotProfiler profiler = new HotSpotProfiler(latest, 10, Duration.ofHours(6));
+        ParkingLot lot = new ParkingLot(0);
+        if (profiled) {
+            lot.addListener(profiler);
+        }
+        for (int f = 0; f < FLOORS; f++) {
+            int zone = f % THREADS;
+            ParkingFloor floor = new ParkingFloor("F" + (f + 1));
+            List<ParkingSpot> spots = new ArrayList<>();
+            for (int i = 0; i < 900; i++) {
+                spots.add(new CompactSpot());
+            }
+            for (int i = 0; i < 60; i++) {
+                spots.add(new MotorcycleSpot());
+            }
+            for (int i = 0; i < 40; i++) {
+                spots.add(new LargeSpot());
+            }
+            floor.addSpots(spots);
+            lot.addFloor(floor);
+            floor.setTimeSource(clocks[zone]);
+            EntryPanel entry = new EntryPanel("G" + (f + 1), floor);
+            ExitPanel exit = new ExitPanel("X" + (f + 1), floor);
+            exit.setVerbose(false);
+            if (profiled) {
+                entry.addListener(profiler);
+                exit.addListener(profiler);
+            }
+            entries.get(zone).add(entry);
+            exits.get(zone).add(exit);
+        }
+
+        ConcurrentHashMap<String, LongAdder> exactVisits = new ConcurrentHashMap<>();
+        AtomicLong rejected = new AtomicLong();
+        ConcurrentLinkedQueue<Departure> leftover = new ConcurrentLinkedQueue<>();
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(100 + t);
+            ManualTimeSource clock = clocks[t];
+            List<EntryPanel> zoneEntries = entries.get(t);
+            List<ExitPanel> zoneExits = exits.get(t);
+            workers[t] = new Thread(() -> drive(visits, random, clock, zoneEntries, zoneExits,
+                    exactVisits, rejected, leftover), "gate-" + t);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong snapshots = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (profiled) {
+                    profiler.snapshot();
+                    snapshots.incrementAndGet();
+                }
+                LockSupport.parkNanos(1_000_000);
+            }
+        }, "snapshot-reader");
+
+        long start = System.nanoTime();
+        reader.start();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Profile the lot as traffic stops, before the vehicles still parked are let out
+        ProfileSnapshot underLoad = profiled ? profiler.snapshot() : null;
+        drain(leftover, clocks);
+        long elapsed = System.nanoTime() - start;
+        done.set(true);
+        reader.join();
+
+        long total = (long) visits * THREADS;
+        System.out.printf("%s: %.0f ns/visit (park + exit), %d rejected as full, %d snapshots during ingestion%n",
+                label, elapsed / (double) total, rejected.get(), snapshots.get());
+        if (profiled) {
+            ProfileSnapshot snapshot = underLoad;
+            snapshot.print();
+            System.out.println("Sketched vs exact visits for the top plates:");
+            for (HeavyHitters.Entry entry : snapshot.getTopPlates()) {
+                LongAdder exact = exactVisits.get(entry.getKey());
+                System.out.println("  " + entry.getKey() + ": " + entry.getCount() + " vs " + (exact == null ? 0 : exact.sum()));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * One gate controller: every step a vehicle arrives at a (skewed) random gate
+     * of its zone, and vehicles whose stay is over leave through a random exit.
+     * Vehicles still parked at the end are handed back in {@code leftover}.
+     */
+    private static void drive(int visits, Random random, ManualTimeSource clock, List<EntryPanel> entries,
+                              List<ExitPanel> exits, ConcurrentHashMap<String, LongAdder> exactVisits,
+                              AtomicLong rejected, ConcurrentLinkedQueue<Departure> leftover) {
+        PriorityQueue<long[]> departures = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        List<ParkingTicket> parked = new ArrayList<>();
+        for (int i = 0; i < visits; i++) {
+            long now = clock.advanceMillis(STEP_MILLIS);
+            while (!departures.isEmpty() && departures.peek()[0] <= now) {
+                ParkingTicket ticket = parked.get((int) departures.poll()[1]);
+                ticket.markPaid();
+                exits.get(random.nextInt(exits.size())).exit(ticket);
+            }
+
+            boolean regular = random.nextInt(5) == 0;
+            int number = regular ? random.nextInt(REGULARS) : REGULARS + random.nextInt(PLATES);
+            String plate = "KA" + number;
+            VehicleType type = random.nextInt(10) == 0 ? VehicleType.MOTORCYCLE : VehicleType.CAR;
+            // The zone's first gate, nearest the street, sees most of the traffic
+            int gate = Math.min(entries.size() - 1, (int) (-Math.log(1 - random.nextDouble()) * 0.8));
+            ParkingTicket ticket = entries.get(gate).issueTicket(new Vehicle(plate, type));
+            if (ticket == null) {
+                rejected.incrementAndGet();
+                continue;
+            }
+            exactVisits.computeIfAbsent(plate, p -> new LongAdder()).increment();
+            // Exponential stays averaging 2 hours, except a few commuters who stay the working day
+            double meanMillis = number < COMMUTERS ? 9 * 3_600_000.0 : 2 * 3_600_000.0;
+            long stay = (long) (-Math.log(1 - random.nextDouble()) * meanMillis);
+            parked.add(ticket);
+            departures.add(new long[]{now + stay, parked.size() - 1});
+        }
+        for (long[] departure : departures) {
+            leftover.add(new Departure(departure[0], parked.get((int) departure[1]),
+                    exits.get(random.nextInt(exits.size()))));
+        }
+    }
+
+    /**
+     * Let the vehicles still parked leave at the end of their stays, in time order
+     * across all zones. Every zone's clock moves together here: left to each gate
+     * controller, a zone finishing behind the others would exit its vehicles at a
+     * profiler time that no longer moves, and its floors would look full throughout.
+     */
+    private static void drain(ConcurrentLinkedQueue<Departure> leftover, ManualTimeSource[] clocks) {
+        List<Departure> ordered = new ArrayList<>(leftover);
+        ordered.sort((a, b) -> Long.compare(a.at, b.at));
+        for (Departure departure : ordered) {
+            for (ManualTimeSource clock : clocks) {
+                if (departure.at > clock.currentTimeMillis()) {
+                    clock.setTime(departure.at);
+                }
+            }
+            departure.ticket.markPaid();
+            departure.exit.exit(departure.ticket);
+        }
+    }
+
+    private static final class Departure {
+        final long at;
+        final ParkingTicket ticket;
+        final ExitPanel exit;
+
+        Departure(long at, ParkingTicket ticket, ExitPanel exit) {
+            this.at = at;
+            this.ticket = ticket;
+            this.exit = exit;
+        }
+    }
+}
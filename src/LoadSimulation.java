@@ -0,0 +1,60 @@
+import config.LotTopology;
+import enums.SpotType;
+import simulation.ParkingSimulator;
+import simulation.SimulationReport;
+import simulation.TrafficProfile;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity-planning run: a week of a 10k-spot lot in fast-forward, then a
+ * shorter real-time run with concurrent gates. Pass a seed to vary the traffic;
+ * the same seed always reproduces the same fast-forward report.
+ */
+public class LoadSimulation {
+    private static final int FLOORS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42L;
+        LotTopology topology = tenThousandSpotLot();
+
+        // Saturday-evening event on top of the normal weekly curve
+        TrafficProfile profile = TrafficProfile.forCapacity(topology.getCapacity())
+                .withEvent(5 * 24 + 18, 4, 2.5);
+
+        System.out.println("=== Load Simulation: " + topology.getCapacity() + " spots, seed " + seed + " ===\n");
+
+        SimulationReport week = new ParkingSimulator(topology, profile, seed)
+                .withGateServiceTime(Duration.ofSeconds(4))
+                .runFastForward(Duration.ofDays(7));
+        week.print();
+
+        // Monday morning rush, one simulated hour per two real seconds
+        System.out.println();
+        SimulationReport rushHour = new ParkingSimulator(topology, profile, seed)
+                .withGateServiceTime(Duration.ofSeconds(4))
+                .withStartHour(6)
+                .runRealTime(Duration.ofHours(3), 1800);
+        rushHour.print();
+    }
+
+    private static LotTopology tenThousandSpotLot() {
+        List<LotTopology.FloorSpec> floors = new ArrayList<>();
+        List<LotTopology.GateSpec> gates = new ArrayList<>();
+        for (int f = 1; f <= FLOORS; f++) {
+            Map<SpotType, Integer> counts = new EnumMap<>(SpotType.class);
+            counts.put(SpotType.COMPACT, 700);
+            counts.put(SpotType.ELECTRIC, 100);
+            counts.put(SpotType.MOTORCYCLE, 150);
+            counts.put(SpotType.LARGE, 50);
+            floors.add(new LotTopology.FloorSpec("F" + f, counts));
+            gates.add(new LotTopology.GateSpec("G" + f, true, "F" + f));
+            gates.add(new LotTopology.GateSpec("X" + f, false, "F" + f));
+        }
+        return new LotTopology(0, floors, gates);
+    }
+}
@@ -1,11 +1,16 @@
 //TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
 // click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
 
+import codec.TicketCodec;
 import enums.PaymentMode;
 import enums.VehicleType;
 import helpers.HourlyPricingStrategy;
 import models.*;
 import service.PaymentService;
+import service.ReceiptScanner;
+import service.VehicleRegistry;
+
+import java.nio.ByteBuffer;
 
 void main() {
 
@@ -36,5 +41,17 @@ void main() {
     portal.pay(ticket, PaymentMode.CARD);
     exit.exit(ticket, floor1);
 
+    // Round trip through a binary receipt: printed at entry, scanned at exit
+    VehicleRegistry registry = new VehicleRegistry();
+    lot.addListener(registry);
+    EntryPanel gate = new EntryPanel("E1", floor1);
+    ByteBuffer receipt = ByteBuffer.allocate(TicketCodec.ENCODED_SIZE);
+    ParkingTicket bikeTicket = gate.issueTicket(new Vehicle("KA02XY987", VehicleType.MOTORCYCLE), receipt);
+    if (bikeTicket != null) {
+        portal.pay(bikeTicket, PaymentMode.CASH);
+        receipt.flip();
+        exit.exit(receipt, new ReceiptScanner(lot, registry));
+    }
+
     floor1.showDisplay();
 }
@@ -0,0 +1,98 @@
+import enums.VehicleType;
+import models.CompactSpot;
+import models.ParkingFloor;
+import models.ParkingLot;
+import permits.Permit;
+import permits.PermitRegistry;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load 500k permit holders and time entitlement checks for holders and
+ * non-holders, first on a quiet registry and then while another thread keeps
+ * reloading the permit list
+ */
+public class PermitCheckBenchmark {
+    private static final int PERMITS = 500_000;
+    private static final int CHECKS = 5_000_000;
+    private static final int FLOORS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int permitCount = args.length > 0 ? Integer.parseInt(args[0]) : PERMITS;
+        System.out.println("=== Permit Check Benchmark: " + permitCount + " permits ===\n");
+
+        ParkingLot lot = new ParkingLot(0);
+        for (int f = 0; f < FLOORS; f++) {
+            ParkingFloor floor = new ParkingFloor("F" + (f + 1));
+            floor.addSpot(new CompactSpot());
+            lot.addFloor(floor);
+        }
+
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        long month = 30L * 24 * 3_600_000;
+        List<Permit> permits = new ArrayList<>(permitCount);
+        String[] holders = new String[permitCount];
+        VehicleType[] vehicleTypes = VehicleType.values();
+        for (int i = 0; i < permitCount; i++) {
+            holders[i] = plate(random);
+            long floors = random.nextInt(4) == 0 ? Permit.ALL_FLOORS : 1L << random.nextInt(FLOORS);
+            permits.add(new Permit(holders[i], EnumSet.of(vehicleTypes[random.nextInt(vehicleTypes.length)]),
+                    floors, now - month, now + month));
+        }
+        String[] strangers = new String[permitCount];
+        for (int i = 0; i < permitCount; i++) {
+            strangers[i] = plate(random);
+        }
+
+        PermitRegistry registry = new PermitRegistry(lot);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            registry.reload(permits);
+            System.out.printf("Reload %d: %.1f ms for %,d permits%n",
+                    round + 1, (System.nanoTime() - start) / 1e6, registry.size());
+        }
+
+        for (int round = 0; round < 3; round++) {
+            check("Quiet", registry, holders, strangers, random);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread reloader = new Thread(() -> {
+            while (!stop.get()) {
+                registry.reload(permits);
+            }
+        }, "permit-reloader");
+        long reloadsBefore = registry.getReloadCount();
+        reloader.start();
+        check("Reloading", registry, holders, strangers, random);
+        stop.set(true);
+        reloader.join();
+        System.out.println("Reloads during the last run: " + (registry.getReloadCount() - reloadsBefore));
+    }
+
+    private static void check(String label, PermitRegistry registry, String[] holders, String[] strangers,
+                              Random random) {
+        VehicleType[] vehicleTypes = VehicleType.values();
+        int entitled = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < CHECKS; i++) {
+            int index = random.nextInt(holders.length);
+            String plate = (i & 1) == 0 ? holders[index] : strangers[index];
+            if (registry.isEntitled(plate, i % FLOORS, vehicleTypes[i % vehicleTypes.length])) {
+                entitled++;
+            }
+        }
+        double nanos = (System.nanoTime() - start) / (double) CHECKS;
+        System.out.printf("%s: %.0f ns/check, %,d of %,d checks entitled%n", label, nanos, entitled, CHECKS);
+    }
+
+    private static String plate(Random random) {
+        return "KA" + (10 + random.nextInt(90)) + (char) ('A' + random.nextInt(26))
+                + (char) ('A' + random.nextInt(26)) + (1000 + random.nextInt(9000));
+    }
+}
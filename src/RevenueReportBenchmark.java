@@ -0,0 +1,61 @@
+import analytics.RevenueReport;
+import analytics.TicketStore;
+import enums.PaymentMode;
+import enums.SpotType;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Ingest a day's worth of synthetic closed tickets into the columnar store and
+ * time the parallel end-of-day report over them
+ */
+public class RevenueReportBenchmark {
+    private static final int TICKETS = 5_000_000;
+    private static final int FLOORS = 50;
+    private static final long DAY_MILLIS = 24 * 3_600_000L;
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : TICKETS;
+        System.out.println("=== Revenue Report Benchmark: " + tickets + " tickets ===\n");
+
+        TicketStore store = new TicketStore(tickets);
+        String[] floors = new String[FLOORS];
+        for (int f = 0; f < FLOORS; f++) {
+            floors[f] = "F" + (f + 1);
+        }
+        SpotType[] spotTypes = SpotType.values();
+        PaymentMode[] modes = PaymentMode.values();
+        long dayStart = System.currentTimeMillis() - DAY_MILLIS;
+
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        IntStream.range(0, threads).parallel().forEach(t -> {
+            Random random = new Random(t);
+            for (int i = t; i < tickets; i += threads) {
+                long occupancy = 15 * 60_000L + (long) (random.nextDouble() * 8 * 3_600_000L);
+                store.append(floors[random.nextInt(FLOORS)],
+                        spotTypes[random.nextInt(spotTypes.length)],
+                        modes[random.nextInt(modes.length)],
+                        400 + random.nextInt(3000),
+                        dayStart + (long) (random.nextDouble() * (DAY_MILLIS - occupancy)),
+                        occupancy);
+            }
+        });
+        long ingestNanos = System.nanoTime() - start;
+        System.out.printf("Ingested %d tickets in %d ms (%.1f M/s, %d threads)%n",
+                store.size(), ingestNanos / 1_000_000, tickets / (ingestNanos / 1e3), threads);
+
+        RevenueReport report = null;
+        for (int run = 1; run <= 5; run++) {
+            start = System.nanoTime();
+            report = store.report(dayStart, dayStart + DAY_MILLIS);
+            System.out.printf("Report run %d: %d ms%n", run, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        System.out.println();
+        System.out.println("Tickets: " + report.getTicketCount() + ", Revenue: $" + report.getTotalRevenue());
+        System.out.println("By spot type: " + report.getRevenueBySpotType());
+        System.out.println("By payment mode: " + report.getRevenueByPaymentMode());
+    }
+}
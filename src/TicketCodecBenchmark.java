@@ -0,0 +1,84 @@
+import codec.DecodedTicket;
+import codec.TicketCodec;
+import enums.VehicleType;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Encode a journal's worth of tickets into one buffer, decode them back and
+ * report throughput and bytes allocated on the hot path
+ */
+public class TicketCodecBenchmark {
+    private static final int TICKETS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : TICKETS;
+        System.out.println("=== Ticket Codec Benchmark: " + tickets + " tickets x " + ROUNDS + " rounds ===\n");
+
+        Random random = new Random(42);
+        long[] ids = new long[tickets];
+        int[] floors = new int[tickets];
+        int[] spots = new int[tickets];
+        VehicleType[] types = new VehicleType[tickets];
+        String[] plates = new String[tickets];
+        long[] entries = new long[tickets];
+        VehicleType[] vehicleTypes = VehicleType.values();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < tickets; i++) {
+            ids[i] = random.nextLong();
+            floors[i] = random.nextInt(50);
+            spots[i] = random.nextInt(10_000);
+            types[i] = vehicleTypes[random.nextInt(vehicleTypes.length)];
+            plates[i] = String.format("KA-%02d-%c%c-%04d", random.nextInt(100),
+                    (char) ('A' + random.nextInt(26)), (char) ('A' + random.nextInt(26)), random.nextInt(10_000));
+            entries[i] = now - random.nextInt(24 * 3_600_000);
+        }
+
+        ByteBuffer journal = ByteBuffer.allocateDirect(tickets * TicketCodec.ENCODED_SIZE);
+        DecodedTicket decoded = new DecodedTicket();
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            journal.clear();
+            for (int i = 0; i < tickets; i++) {
+                TicketCodec.encode(ids[i], floors[i], spots[i], types[i], plates[i], entries[i], journal);
+            }
+            long encoded = System.nanoTime();
+            journal.flip();
+            for (int i = 0; i < tickets; i++) {
+                TicketCodec.decode(journal, decoded);
+                checksum += decoded.getTicketId() + decoded.getSpotIndex();
+            }
+            long done = System.nanoTime();
+            long allocated = allocatedBytes() - allocatedBefore;
+            System.out.printf("Round %d: encode %.1f ns/ticket, decode %.1f ns/ticket, %,d bytes allocated%n",
+                    round + 1, (encoded - start) / (double) tickets, (done - encoded) / (double) tickets, allocated);
+        }
+
+        // Round-trip check on the last pass
+        journal.rewind();
+        for (int i = 0; i < tickets; i++) {
+            TicketCodec.decode(journal, decoded);
+            if (decoded.getTicketId() != ids[i] || decoded.getFloorId() != floors[i]
+                    || decoded.getSpotIndex() != spots[i] || decoded.getVehicleType() != types[i]
+                    || !decoded.plateEquals(plates[i]) || decoded.getEntryEpochMillis() != entries[i] / 1000 * 1000) {
+                throw new IllegalStateException("Round trip mismatch at ticket " + i);
+            }
+        }
+        System.out.println("\nRound trip verified for all tickets (checksum " + checksum + ")");
+        System.out.println("Encoded size: " + TicketCodec.ENCODED_SIZE + " bytes per ticket, "
+                + (tickets * (long) TicketCodec.ENCODED_SIZE) / (1024 * 1024) + " MB in total");
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,68 @@
+import config.LotTopology;
+import config.TopologyLoader;
+import models.CompactSpot;
+import models.ElectricSpot;
+import models.LargeSpot;
+import models.MotorcycleSpot;
+import models.ParkingFloor;
+import models.ParkingLot;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Compare bringing up a 50-floor, 200k-spot site through the topology loader
+ * against the imperative one-addSpot-per-spot approach
+ */
+public class TopologyLoadBenchmark {
+    private static final int FLOORS = 50;
+    private static final int COMPACT = 2800;
+    private static final int ELECTRIC = 400;
+    private static final int MOTORCYCLE = 600;
+    private static final int LARGE = 200;
+
+    public static void main(String[] args) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int f = 1; f <= FLOORS; f++) {
+            text.append("floor F").append(f)
+                    .append(" compact=").append(COMPACT)
+                    .append(" electric=").append(ELECTRIC)
+                    .append(" motorcycle=").append(MOTORCYCLE)
+                    .append(" large=").append(LARGE).append('\n');
+            text.append("entry G").append(f).append(" floor=F").append(f).append('\n');
+            text.append("exit X").append(f).append(" floor=F").append(f).append('\n');
+        }
+
+        System.out.println("=== Topology Load Benchmark: " + FLOORS + " floors, "
+                + FLOORS * (COMPACT + ELECTRIC + MOTORCYCLE + LARGE) + " spots ===\n");
+
+        for (int run = 1; run <= 5; run++) {
+            long start = System.nanoTime();
+            LotTopology topology = LotTopology.parse(new StringReader(text.toString()));
+            TopologyLoader.LoadedLot loaded = new TopologyLoader().load(topology);
+            long loaderMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            ParkingLot imperative = buildImperatively();
+            long imperativeMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println("Run " + run + ": loader " + loaderMillis + " ms ("
+                    + loaded.getLot().getFloors().size() + " floors, "
+                    + loaded.getEntryPanels().size() + " entry gates), imperative "
+                    + imperativeMillis + " ms (" + imperative.getFloors().size() + " floors)");
+        }
+    }
+
+    private static ParkingLot buildImperatively() {
+        ParkingLot lot = new ParkingLot(FLOORS * (COMPACT + ELECTRIC + MOTORCYCLE + LARGE));
+        for (int f = 1; f <= FLOORS; f++) {
+            ParkingFloor floor = new ParkingFloor("F" + f);
+            for (int i = 0; i < COMPACT; i++) floor.addSpot(new CompactSpot());
+            for (int i = 0; i < ELECTRIC; i++) floor.addSpot(new ElectricSpot());
+            for (int i = 0; i < MOTORCYCLE; i++) floor.addSpot(new MotorcycleSpot());
+            for (int i = 0; i < LARGE; i++) floor.addSpot(new LargeSpot());
+            lot.addFloor(floor);
+        }
+        return lot;
+    }
+}
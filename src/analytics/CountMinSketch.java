@@ -0,0 +1,85 @@
+package analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over string keys: {@code depth} rows of {@code width}
+ * counters, one hashed counter per row per key. Each row hashes the key's
+ * characters into 64 bits with its own seed, so keys that share a
+ * {@link String#hashCode()} are still told apart. An estimate is the smallest of
+ * a key's counters, so it never undercounts and overcounts by at most
+ * {@code e / width} of the total weight with probability {@code 1 - e^-depth}.
+ *
+ * Counters are atomics, so adds from many threads need no lock and reads see
+ * each counter's latest value. Memory is fixed at construction.
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows, at most 8
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || width > 1 << 24 || depth <= 0 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Invalid sketch size: " + width + " x " + depth);
+        }
+        int rounded = Integer.highestOneBit(width);
+        if (rounded < width) {
+            rounded <<= 1;
+        }
+        this.depth = depth;
+        this.mask = rounded - 1;
+        this.counters = new AtomicLongArray(rounded * depth);
+    }
+
+    /**
+     * Add weight to a key and return its new estimate
+     */
+    public long add(String key, long weight) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(slot(key, row), weight));
+        }
+        return estimate;
+    }
+
+    /**
+     * Upper-bound estimate of the total weight added for a key
+     */
+    public long estimate(String key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(slot(key, row)));
+        }
+        return estimate;
+    }
+
+    public int getWidth() {
+        return mask + 1;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private int slot(String key, int row) {
+        long h = SEEDS[row];
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        h ^= key.length();
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * (mask + 1) + ((int) h & mask);
+    }
+}
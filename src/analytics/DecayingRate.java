@@ -0,0 +1,96 @@
+package analytics;
+
+import helpers.TimeSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exponentially weighted moving average folded once per fixed interval, like
+ * a Unix load average. Tracks either the rate of {@link #mark} calls or, as a
+ * gauge, the time-weighted average of a level moved by {@link #adjust}.
+ *
+ * A gauge change made {@code e} millis into its interval counts for
+ * {@code delta * (interval - e) / interval} of that interval's average, so each
+ * interval folds in the level integrated over the whole interval rather than a
+ * sample of it, and the result does not depend on how often anyone reads it.
+ *
+ * Marking only touches {@link LongAdder}s. Whichever thread first notices
+ * that an interval has passed folds it in, guarded by a CAS on the interval
+ * boundary, so neither writers nor readers take a lock.
+ */
+class DecayingRate {
+    private final TimeSource clock;
+    private final long intervalMillis;
+    private final double decay;
+    private final boolean gauge;
+    // Rate: marks this interval. Gauge: level changes weighted by the millis into their interval
+    private final LongAdder pending = new LongAdder();
+    // Gauge only: the current level, never reset
+    private final LongAdder level = new LongAdder();
+    private final AtomicLong nextTick;
+    private volatile double value;
+
+    /**
+     * @param intervalMillis how often the average is folded
+     * @param windowMillis   time constant: older intervals weigh {@code 1/e} less per window
+     * @param gauge          average a level moved by {@link #adjust} instead of the mark rate
+     */
+    DecayingRate(TimeSource clock, long intervalMillis, long windowMillis, boolean gauge) {
+        if (intervalMillis <= 0 || windowMillis < intervalMillis) {
+            throw new IllegalArgumentException("Invalid interval " + intervalMillis + " for window " + windowMillis);
+        }
+        this.clock = clock;
+        this.intervalMillis = intervalMillis;
+        this.decay = Math.exp(-(double) intervalMillis / windowMillis);
+        this.gauge = gauge;
+        this.nextTick = new AtomicLong(clock.currentTimeMillis() + intervalMillis);
+    }
+
+    void mark() {
+        pending.increment();
+        tickIfDue();
+    }
+
+    /**
+     * Move the gauge's level by {@code delta} as of now
+     */
+    void adjust(long delta) {
+        tickIfDue();
+        long elapsed = Math.max(0, Math.min(intervalMillis, clock.currentTimeMillis() - (nextTick.get() - intervalMillis)));
+        level.add(delta);
+        pending.add(delta * elapsed);
+    }
+
+    /**
+     * Average events per minute, or the gauge's time-weighted average level
+     */
+    double get() {
+        tickIfDue();
+        return gauge ? value : value * 60_000 / intervalMillis;
+    }
+
+    private void tickIfDue() {
+        long now = clock.currentTimeMillis();
+        long next = nextTick.get();
+        if (now < next) {
+            return;
+        }
+        long intervals = (now - next) / intervalMillis + 1;
+        if (!nextTick.compareAndSet(next, next + intervals * intervalMillis)) {
+            return; // Another thread is folding these intervals
+        }
+        double average = value;
+        if (gauge) {
+            // Changes racing with the fold may land in the wrong interval; the level itself is never lost
+            double end = level.sum();
+            double mean = end - (double) pending.sumThenReset() / intervalMillis;
+            average = mean + (average - mean) * decay;
+            value = end + (average - end) * Math.pow(decay, intervals - 1); // Later intervals held the end level
+        } else {
+            double count = pending.sumThenReset();
+            average = count + (average - count) * decay;
+            value = average * Math.pow(decay, intervals - 1); // Later intervals had no events
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package analytics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of dwell times in the style of HdrHistogram, bucketed in
+ * whole seconds. Below {@value #LINEAR} seconds every second has its own bucket;
+ * above that each power of two is split into {@value #LINEAR}/2 equal buckets, so
+ * any recorded value is reported within about 6% of its true value, up to a century.
+ *
+ * Recording is one atomic increment. {@link #copy()} takes a point-in-time copy
+ * without stopping writers; percentiles are usually read from such a copy.
+ */
+public class DwellHistogram {
+    private static final int SUB_BITS = 5;
+    static final int LINEAR = 1 << SUB_BITS;
+    private static final int HALF = LINEAR / 2;
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - SUB_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts;
+
+    public DwellHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    private DwellHistogram(AtomicLongArray counts) {
+        this.counts = counts;
+    }
+
+    public void record(long millis) {
+        counts.incrementAndGet(bucket(Math.max(0, millis) / 1000));
+    }
+
+    /**
+     * A copy of the current counts; later records do not affect it
+     */
+    public DwellHistogram copy() {
+        AtomicLongArray copied = new AtomicLongArray(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            copied.set(i, counts.get(i));
+        }
+        return new DwellHistogram(copied);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Smallest dwell that at least {@code percentile}% of the recorded dwells do not exceed
+     */
+    public Duration getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long total = getCount();
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Duration.ofSeconds(highestValue(i));
+            }
+        }
+        return Duration.ofSeconds(highestValue(BUCKETS - 1));
+    }
+
+    public Duration getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            total += count;
+            sum += count * (lowestValue(i) + highestValue(i)) / 2.0;
+        }
+        return total == 0 ? Duration.ZERO : Duration.ofSeconds(Math.round(sum / total));
+    }
+
+    static int bucket(long seconds) {
+        if (seconds < LINEAR) {
+            return (int) seconds;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(seconds);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BITS + 1;
+        return LINEAR + (exponent - SUB_BITS) * HALF + (int) (seconds >>> shift) - HALF;
+    }
+
+    static long lowestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int octave = (bucket - LINEAR) / HALF;
+        int sub = (bucket - LINEAR) % HALF;
+        return (long) (HALF + sub) << (octave + 1);
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        return lowestValue(bucket) + (1L << ((bucket - LINEAR) / HALF + 1)) - 1;
+    }
+}
@@ -0,0 +1,148 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate top-k keys by weight: a {@link CountMinSketch} holds the counts
+ * and a fixed table of {@code k} slots remembers the keys whose estimates are
+ * largest so far.
+ *
+ * Adds are lock-free. Most keys never reach the table and cost one sketch
+ * update and a volatile read of the entry threshold; a key above the threshold
+ * refreshes its own slot, or replaces the smallest one, with a CAS. Two threads
+ * admitting the same new key at once can both take a slot; {@link #top()}
+ * merges such duplicates, and the spare slot is the next one evicted.
+ */
+public class HeavyHitters {
+    private final CountMinSketch sketch;
+    private final AtomicReferenceArray<Entry> slots;
+    private volatile long threshold;
+
+    /**
+     * @param k     number of keys tracked
+     * @param width sketch counters per row; see {@link CountMinSketch}
+     */
+    public HeavyHitters(int k, int width) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.sketch = new CountMinSketch(width, 4);
+        this.slots = new AtomicReferenceArray<>(k);
+    }
+
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    public void add(String key, long weight) {
+        long estimate = sketch.add(key, weight);
+        if (estimate > threshold) {
+            offer(key, estimate);
+        }
+    }
+
+    /**
+     * Upper-bound estimate of a key's weight, whether or not it is in the top k
+     */
+    public long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    /**
+     * The tracked keys, heaviest first, with their current estimates
+     */
+    public List<Entry> top() {
+        Map<String, Entry> merged = new HashMap<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null) {
+                merged.putIfAbsent(entry.key, new Entry(entry.key, sketch.estimate(entry.key)));
+            }
+        }
+        List<Entry> result = new ArrayList<>(merged.values());
+        result.sort((a, b) -> Long.compare(b.count, a.count));
+        return result;
+    }
+
+    private void offer(String key, long estimate) {
+        for (int attempt = 0; attempt < 4; attempt++) {
+            // Prefer an empty slot, then the smallest entry
+            int victim = -1;
+            Entry victimEntry = null;
+            boolean raced = false;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry entry = slots.get(i);
+                if (entry == null) {
+                    if (victim < 0 || victimEntry != null) {
+                        victim = i;
+                        victimEntry = null;
+                    }
+                } else if (entry.key.equals(key)) {
+                    // Slot counts only steer eviction, so let them lag by up to 1/16 rather than CAS on every add
+                    if (entry.count + (entry.count >>> 4) >= estimate
+                            || slots.compareAndSet(i, entry, new Entry(key, estimate))) {
+                        return;
+                    }
+                    raced = true;
+                    break;
+                } else if (victim < 0 || (victimEntry != null && entry.count < victimEntry.count)) {
+                    victim = i;
+                    victimEntry = entry;
+                }
+            }
+            if (raced) {
+                continue;
+            }
+            if (victimEntry != null && victimEntry.count >= estimate) {
+                return;
+            }
+            if (slots.compareAndSet(victim, victimEntry, new Entry(key, estimate))) {
+                refreshThreshold();
+                return;
+            }
+        }
+    }
+
+    private void refreshThreshold() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry == null) {
+                min = 0;
+                break;
+            }
+            min = Math.min(min, entry.count);
+        }
+        threshold = min;
+    }
+
+    /**
+     * A key and its estimated weight
+     */
+    public static final class Entry {
+        private final String key;
+        private final long count;
+
+        Entry(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+}
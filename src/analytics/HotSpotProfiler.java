@@ -0,0 +1,198 @@
+package analytics;
+
+import enums.VehicleType;
+import helpers.TimeSource;
+import managers.VehicleManager;
+import models.GateListener;
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingTicket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Streaming profile of where and how long vehicles park, fed by park, release
+ * and gate events and never retaining a ticket:
+ * <ul>
+ *   <li>busiest entry and exit gates, most frequent plates and worst
+ *       overstayers, as count-min heavy-hitter sketches</li>
+ *   <li>dwell-time histograms per {@link VehicleType} and per floor</li>
+ *   <li>arrival and departure rates and time-weighted average occupancy
+ *       per floor, exponentially decayed</li>
+ * </ul>
+ *
+ * Memory is fixed at construction whatever the traffic. Floors are tracked in
+ * {@value #MAX_FLOORS} slots by floor id; a floor whose slot is taken by another
+ * floor, or that has no id, only feeds the lot-wide figures. Removing a floor from
+ * the lot frees its slot and drops its figures. Register the profiler
+ * as a lot listener and as a listener on each gate; vehicles parked before
+ * registration are not counted as occupying their floor.
+ *
+ * Every update is lock-free, and {@link #snapshot()} reads the live counters
+ * without pausing ingestion, so a snapshot taken under load may be a few events
+ * out of step between its sections.
+ */
+public class HotSpotProfiler implements ParkingEventListener, GateListener {
+    static final int MAX_FLOORS = 64;
+    private static final long RATE_INTERVAL_MILLIS = 5_000;
+    private static final long RATE_WINDOW_MILLIS = 15 * 60_000;
+    private static final int GATE_SKETCH_WIDTH = 1 << 10;
+    private static final int PLATE_SKETCH_WIDTH = 1 << 14;
+
+    private final TimeSource clock;
+    private final long overstayMillis;
+    private final HeavyHitters entryGates;
+    private final HeavyHitters exitGates;
+    private final HeavyHitters plates;
+    private final HeavyHitters overstays;
+    private final DwellHistogram[] dwellByType = new DwellHistogram[VehicleType.values().length];
+    private final AtomicReferenceArray<FloorStats> floors = new AtomicReferenceArray<>(MAX_FLOORS);
+
+    public HotSpotProfiler() {
+        this(TimeSource.defaultSource(), 20, Duration.ofHours(4));
+    }
+
+    /**
+     * @param clock         time source for the decayed rates; dwell is taken from the tickets
+     * @param topK          keys kept by each heavy-hitter list
+     * @param overstayAfter dwell beyond which a plate counts as overstaying
+     */
+    public HotSpotProfiler(TimeSource clock, int topK, Duration overstayAfter) {
+        this.clock = clock;
+        this.overstayMillis = overstayAfter.toMillis();
+        this.entryGates = new HeavyHitters(topK, GATE_SKETCH_WIDTH);
+        this.exitGates = new HeavyHitters(topK, GATE_SKETCH_WIDTH);
+        this.plates = new HeavyHitters(topK, PLATE_SKETCH_WIDTH);
+        this.overstays = new HeavyHitters(topK, PLATE_SKETCH_WIDTH);
+        for (int i = 0; i < dwellByType.length; i++) {
+            dwellByType[i] = new DwellHistogram();
+        }
+    }
+
+    @Override
+    public void onPark(ParkingFloor floor, ParkingTicket ticket) {
+        plates.add(ticket.getVehicle().getNumber());
+        FloorStats stats = stats(floor);
+        if (stats != null) {
+            stats.occupied.incrementAndGet();
+            stats.occupancy.adjust(1);
+            stats.arrivals.mark();
+        }
+    }
+
+    @Override
+    public void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+        long dwell = ticket.getParkedMillis();
+        dwellByType[ticket.getVehicle().getType().ordinal()].record(dwell);
+        if (dwell > overstayMillis) {
+            // Weighted by minutes over, so one very long stay counts like several short overstays
+            overstays.add(ticket.getVehicle().getNumber(), (dwell - overstayMillis) / 60_000 + 1);
+        }
+        FloorStats stats = stats(floor);
+        if (stats != null) {
+            stats.dwell.record(dwell);
+            // Vehicles parked before registration were never counted in
+            if (stats.occupied.getAndUpdate(occupied -> Math.max(0, occupied - 1)) > 0) {
+                stats.occupancy.adjust(-1);
+            }
+            stats.departures.mark();
+        }
+    }
+
+    @Override
+    public void onFloorRemoved(ParkingFloor floor) {
+        int id = floor.getId();
+        if (id >= 0) {
+            int slot = id % MAX_FLOORS;
+            FloorStats stats = floors.get(slot);
+            if (stats != null && stats.floor == floor) {
+                floors.compareAndSet(slot, stats, null);
+            }
+        }
+    }
+
+    @Override
+    public void onEntry(String gateId, ParkingTicket ticket) {
+        entryGates.add(gateId);
+    }
+
+    @Override
+    public void onExit(String gateId, ParkingTicket ticket) {
+        exitGates.add(gateId);
+    }
+
+    /**
+     * Estimated number of visits by a plate since the profiler was registered
+     */
+    public long getVisitEstimate(String plate) {
+        return plates.estimate(plate);
+    }
+
+    /**
+     * Point-in-time view of every figure, taken without stopping ingestion
+     */
+    public ProfileSnapshot snapshot() {
+        Map<VehicleType, DwellHistogram> byType = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VehicleType.values()) {
+            byType.put(type, dwellByType[type.ordinal()].copy());
+        }
+        List<ProfileSnapshot.FloorProfile> floorProfiles = new ArrayList<>();
+        for (int i = 0; i < MAX_FLOORS; i++) {
+            FloorStats stats = floors.get(i);
+            if (stats != null) {
+                floorProfiles.add(new ProfileSnapshot.FloorProfile(stats.floor.getName(), stats.floor.getId(),
+                        capacity(stats.floor), stats.occupied.get(), stats.occupancy.get(),
+                        stats.arrivals.get(), stats.departures.get(), stats.dwell.copy()));
+            }
+        }
+        return new ProfileSnapshot(clock.currentTimeMillis(), entryGates.top(), exitGates.top(),
+                plates.top(), overstays.top(), byType, floorProfiles);
+    }
+
+    private FloorStats stats(ParkingFloor floor) {
+        int id = floor.getId();
+        if (id < 0) {
+            return null;
+        }
+        int slot = id % MAX_FLOORS;
+        FloorStats stats = floors.get(slot);
+        if (stats == null) {
+            FloorStats created = new FloorStats(floor, clock);
+            stats = floors.compareAndSet(slot, null, created) ? created : floors.get(slot);
+        }
+        return stats.floor == floor ? stats : null;
+    }
+
+    private static int capacity(ParkingFloor floor) {
+        int total = 0;
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            total += manager.getTotalSpotsCount();
+        }
+        return total;
+    }
+
+    /**
+     * Per-floor counters, created the first time an event for the floor arrives
+     */
+    private static final class FloorStats {
+        final ParkingFloor floor;
+        final AtomicInteger occupied = new AtomicInteger();
+        final DecayingRate arrivals;
+        final DecayingRate departures;
+        final DecayingRate occupancy;
+        final DwellHistogram dwell = new DwellHistogram();
+
+        FloorStats(ParkingFloor floor, TimeSource clock) {
+            this.floor = floor;
+            this.arrivals = new DecayingRate(clock, RATE_INTERVAL_MILLIS, RATE_WINDOW_MILLIS, false);
+            this.departures = new DecayingRate(clock, RATE_INTERVAL_MILLIS, RATE_WINDOW_MILLIS, false);
+            this.occupancy = new DecayingRate(clock, RATE_INTERVAL_MILLIS, RATE_WINDOW_MILLIS, true);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package analytics;
+
+import enums.VehicleType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time view of a {@link HotSpotProfiler}. Heavy-hitter counts are
+ * upper-bound estimates; dwell percentiles are accurate to about 6%.
+ */
+public class ProfileSnapshot {
+    private final long takenAtMillis;
+    private final List<HeavyHitters.Entry> topEntryGates;
+    private final List<HeavyHitters.Entry> topExitGates;
+    private final List<HeavyHitters.Entry> topPlates;
+    private final List<HeavyHitters.Entry> topOverstayers;
+    private final Map<VehicleType, DwellHistogram> dwellByType;
+    private final List<FloorProfile> floors;
+
+    ProfileSnapshot(long takenAtMillis, List<HeavyHitters.Entry> topEntryGates, List<HeavyHitters.Entry> topExitGates,
+                    List<HeavyHitters.Entry> topPlates, List<HeavyHitters.Entry> topOverstayers,
+                    Map<VehicleType, DwellHistogram> dwellByType, List<FloorProfile> floors) {
+        this.takenAtMillis = takenAtMillis;
+        this.topEntryGates = List.copyOf(topEntryGates);
+        this.topExitGates = List.copyOf(topExitGates);
+        this.topPlates = List.copyOf(topPlates);
+        this.topOverstayers = List.copyOf(topOverstayers);
+        this.dwellByType = Map.copyOf(dwellByType);
+        this.floors = List.copyOf(floors);
+    }
+
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    public List<HeavyHitters.Entry> getTopEntryGates() {
+        return topEntryGates;
+    }
+
+    public List<HeavyHitters.Entry> getTopExitGates() {
+        return topExitGates;
+    }
+
+    /**
+     * Most frequent plates by number of visits
+     */
+    public List<HeavyHitters.Entry> getTopPlates() {
+        return topPlates;
+    }
+
+    /**
+     * Plates with the most minutes parked beyond the overstay limit
+     */
+    public List<HeavyHitters.Entry> getTopOverstayers() {
+        return topOverstayers;
+    }
+
+    /**
+     * Dwell histogram for a vehicle type; do not record into it
+     */
+    public DwellHistogram getDwell(VehicleType type) {
+        return dwellByType.get(type);
+    }
+
+    public List<FloorProfile> getFloors() {
+        return floors;
+    }
+
+    public void print() {
+        System.out.println("---- Hot-Spot Profile ----");
+        System.out.println("Busiest entry gates: " + topEntryGates);
+        System.out.println("Busiest exit gates: " + topExitGates);
+        System.out.println("Most frequent plates: " + topPlates);
+        System.out.println("Top overstayers (minutes over): " + topOverstayers);
+        for (VehicleType type : VehicleType.values()) {
+            DwellHistogram dwell = dwellByType.get(type);
+            if (dwell.getCount() > 0) {
+                System.out.println(type + " dwell: " + describe(dwell));
+            }
+        }
+        for (FloorProfile floor : floors) {
+            System.out.printf("%s: %.1f%% occupied on average (%d/%d now), %.1f arrivals/min, %.1f departures/min, dwell %s%n",
+                    floor.getName(), floor.getOccupancyRate() * 100, floor.getOccupied(), floor.getCapacity(),
+                    floor.getArrivalsPerMinute(), floor.getDeparturesPerMinute(), describe(floor.getDwell()));
+        }
+    }
+
+    private static String describe(DwellHistogram dwell) {
+        return dwell.getCount() + " stays, p50 " + minutes(dwell.getPercentile(50))
+                + ", p90 " + minutes(dwell.getPercentile(90)) + ", p99 " + minutes(dwell.getPercentile(99));
+    }
+
+    private static String minutes(Duration duration) {
+        return duration.toMinutes() + "m";
+    }
+
+    /**
+     * Decayed rates, occupancy and dwell for one floor
+     */
+    public static final class FloorProfile {
+        private final String name;
+        private final int id;
+        private final int capacity;
+        private final int occupied;
+        private final double averageOccupied;
+        private final double arrivalsPerMinute;
+        private final double departuresPerMinute;
+        private final DwellHistogram dwell;
+
+        FloorProfile(String name, int id, int capacity, int occupied, double averageOccupied,
+                     double arrivalsPerMinute, double departuresPerMinute, DwellHistogram dwell) {
+            this.name = name;
+            this.id = id;
+            this.capacity = capacity;
+            this.occupied = occupied;
+            this.averageOccupied = averageOccupied;
+            this.arrivalsPerMinute = arrivalsPerMinute;
+            this.departuresPerMinute = departuresPerMinute;
+            this.dwell = dwell;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Vehicles on the floor when the snapshot was taken
+         */
+        public int getOccupied() {
+            return occupied;
+        }
+
+        /**
+         * Decayed average share of the floor's spots in use, 0 to 1
+         */
+        public double getOccupancyRate() {
+            return capacity == 0 ? 0 : averageOccupied / capacity;
+        }
+
+        public double getArrivalsPerMinute() {
+            return arrivalsPerMinute;
+        }
+
+        public double getDeparturesPerMinute() {
+            return departuresPerMinute;
+        }
+
+        public DwellHistogram getDwell() {
+            return dwell;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package analytics;
+
+import enums.PaymentMode;
+import enums.SpotType;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue and occupancy totals broken down by floor, spot type and payment mode.
+ * Cells are kept in flat primitive arrays indexed [floor][spotType][settlement],
+ * where settlement is a payment mode or {@link #PERMIT}, so partial reports from
+ * parallel workers merge with a single array pass. Tickets that left without a
+ * payment count towards tickets and occupancy but earn nothing.
+ */
+public class RevenueReport {
+    private static final int SPOT_TYPES = SpotType.values().length;
+    /**
+     * Settlement slot for tickets that left without a payment, e.g. covered by a permit
+     */
+    static final int PERMIT = PaymentMode.values().length;
+    private static final int SETTLEMENTS = PERMIT + 1;
+
+    private final List<String> floors;
+    private final long[] revenueCents;
+    private final long[] occupancyMillis;
+    private final long[] tickets;
+
+    RevenueReport(List<String> floors) {
+        this.floors = floors;
+        int cells = floors.size() * SPOT_TYPES * SETTLEMENTS;
+        this.revenueCents = new long[cells];
+        this.occupancyMillis = new long[cells];
+        this.tickets = new long[cells];
+    }
+
+    void add(int floorId, int spotType, int settlement, long amountCents, long occupancy) {
+        int cell = cell(floorId, spotType, settlement);
+        revenueCents[cell] += amountCents;
+        occupancyMillis[cell] += occupancy;
+        tickets[cell]++;
+    }
+
+    RevenueReport merge(RevenueReport other) {
+        for (int i = 0; i < revenueCents.length; i++) {
+            revenueCents[i] += other.revenueCents[i];
+            occupancyMillis[i] += other.occupancyMillis[i];
+            tickets[i] += other.tickets[i];
+        }
+        return this;
+    }
+
+    public double getRevenue(String floor, SpotType spotType, PaymentMode mode) {
+        int floorId = floors.indexOf(floor);
+        return floorId < 0 ? 0 : revenueCents[cell(floorId, spotType.ordinal(), mode.ordinal())] / 100.0;
+    }
+
+    public double getTotalRevenue() {
+        long total = 0;
+        for (long cents : revenueCents) {
+            total += cents;
+        }
+        return total / 100.0;
+    }
+
+    public long getTicketCount() {
+        long total = 0;
+        for (long count : tickets) {
+            total += count;
+        }
+        return total;
+    }
+
+    public Map<String, Double> getRevenueByFloor() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int f = 0; f < floors.size(); f++) {
+            result.put(floors.get(f), sum(revenueCents, f, -1, -1) / 100.0);
+        }
+        return result;
+    }
+
+    public Map<SpotType, Double> getRevenueBySpotType() {
+        Map<SpotType, Double> result = new EnumMap<>(SpotType.class);
+        for (SpotType type : SpotType.values()) {
+            result.put(type, sum(revenueCents, -1, type.ordinal(), -1) / 100.0);
+        }
+        return result;
+    }
+
+    public Map<PaymentMode, Double> getRevenueByPaymentMode() {
+        Map<PaymentMode, Double> result = new EnumMap<>(PaymentMode.class);
+        for (PaymentMode mode : PaymentMode.values()) {
+            result.put(mode, sum(revenueCents, -1, -1, mode.ordinal()) / 100.0);
+        }
+        return result;
+    }
+
+    /**
+     * Tickets that left without a payment, e.g. covered by a permit
+     */
+    public long getPermitTicketCount() {
+        return sum(tickets, -1, -1, PERMIT);
+    }
+
+    public Map<String, Double> getOccupancyHoursByFloor() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int f = 0; f < floors.size(); f++) {
+            result.put(floors.get(f), sum(occupancyMillis, f, -1, -1) / 3_600_000.0);
+        }
+        return result;
+    }
+
+    public Map<SpotType, Double> getOccupancyHoursBySpotType() {
+        Map<SpotType, Double> result = new EnumMap<>(SpotType.class);
+        for (SpotType type : SpotType.values()) {
+            result.put(type, sum(occupancyMillis, -1, type.ordinal(), -1) / 3_600_000.0);
+        }
+        return result;
+    }
+
+    public void print() {
+        System.out.println("---- Revenue Report ----");
+        System.out.println("Tickets: " + getTicketCount() + ", Revenue: $" + getTotalRevenue());
+        getRevenueByFloor().forEach((floor, revenue) ->
+                System.out.println(floor + " : $" + revenue + ", "
+                        + getOccupancyHoursByFloor().get(floor) + " occupancy hours"));
+        getRevenueBySpotType().forEach((type, revenue) ->
+                System.out.println(type + " : $" + revenue + ", "
+                        + getOccupancyHoursBySpotType().get(type) + " occupancy hours"));
+        getRevenueByPaymentMode().forEach((mode, revenue) ->
+                System.out.println(mode + " : $" + revenue));
+        System.out.println("PERMIT : " + getPermitTicketCount() + " tickets");
+    }
+
+    /**
+     * Sum a column over every cell matching the given coordinates; -1 matches all
+     */
+    private long sum(long[] column, int floorId, int spotType, int settlement) {
+        long total = 0;
+        for (int f = 0; f < floors.size(); f++) {
+            if (floorId >= 0 && f != floorId) continue;
+            for (int s = 0; s < SPOT_TYPES; s++) {
+                if (spotType >= 0 && s != spotType) continue;
+                for (int m = 0; m < SETTLEMENTS; m++) {
+                    if (settlement >= 0 && m != settlement) continue;
+                    total += column[cell(f, s, m)];
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int cell(int floorId, int spotType, int settlement) {
+        return (floorId * SPOT_TYPES + spotType) * SETTLEMENTS + settlement;
+    }
+}
@@ -0,0 +1,213 @@
+package analytics;
+
+import enums.PaymentMode;
+import enums.SpotType;
+import models.GateListener;
+import models.ParkingFloor;
+import models.ParkingTicket;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only, in-memory columnar store of closed tickets. Register it on the
+ * exit panels: a row is recorded when a ticket exits, so tickets settled by a
+ * permit are kept alongside paid ones.
+ *
+ * Rows live in fixed-size chunks of primitive column arrays. Writers reserve a
+ * row with a single atomic increment and fill the columns without any lock;
+ * the floor column is written last with release semantics and doubles as the
+ * row's commit marker, so readers never see a half-written row. When the
+ * store is full further rows are counted as dropped rather than blocking the
+ * exit path.
+ */
+public class TicketStore implements GateListener {
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final AtomicReferenceArray<Chunk> chunks;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ConcurrentHashMap<ParkingFloor, Integer> floorIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> namedFloorIds = new ConcurrentHashMap<>();
+    private final List<String> floorNames = new CopyOnWriteArrayList<>();
+    // Slot for tickets whose spot was never placed on a floor; -1 until first needed
+    private volatile int unassignedFloorId = -1;
+
+    /**
+     * @param maxTickets upper bound on rows kept; rounded up to a whole chunk
+     */
+    public TicketStore(long maxTickets) {
+        long chunkCount = (maxTickets + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        if (chunkCount <= 0 || chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid ticket store capacity: " + maxTickets);
+        }
+        this.chunks = new AtomicReferenceArray<>((int) chunkCount);
+    }
+
+    @Override
+    public void onExit(String gateId, ParkingTicket ticket) {
+        ParkingFloor floor = ticket.getSpot().getFloor();
+        int floorId = floor != null ? floorId(floorIds, floor, floor.getName()) : unassignedFloorId();
+        append(floorId,
+                ticket.getSpot().getSpotType(),
+                ticket.getPaymentMode(),
+                Math.round(ticket.getPaidAmount() * 100),
+                ticket.getEntryEpochMillis(),
+                ticket.getParkedMillis());
+    }
+
+    /**
+     * Append one closed ticket. Never blocks; returns false if the store is full.
+     *
+     * @param mode how the ticket was paid, or null if it left without a payment
+     */
+    public boolean append(String floorName, SpotType spotType, PaymentMode mode,
+                          long amountCents, long entryEpochMillis, long occupancyMillis) {
+        return append(floorId(namedFloorIds, floorName, floorName), spotType, mode,
+                amountCents, entryEpochMillis, occupancyMillis);
+    }
+
+    private boolean append(int floorId, SpotType spotType, PaymentMode mode,
+                           long amountCents, long entryEpochMillis, long occupancyMillis) {
+        long row = reserved.getAndIncrement();
+        int chunkIndex = (int) (row >>> CHUNK_BITS);
+        if (row < 0 || chunkIndex >= chunks.length()) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        Chunk chunk = chunk(chunkIndex);
+        int i = (int) (row & CHUNK_MASK);
+        chunk.spotType[i] = (byte) spotType.ordinal();
+        chunk.settlement[i] = (byte) (mode != null ? mode.ordinal() : RevenueReport.PERMIT);
+        chunk.amountCents[i] = amountCents;
+        chunk.entryEpochMillis[i] = entryEpochMillis;
+        chunk.occupancyMillis[i] = occupancyMillis;
+        INT_ARRAY.setRelease(chunk.committedFloor, i, floorId + 1);
+        return true;
+    }
+
+    /**
+     * Aggregate every committed row into a report
+     */
+    public RevenueReport report() {
+        return report(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Aggregate rows closed in {@code [fromEpochMillis, toEpochMillis)} using a
+     * parallel stream over chunks; each chunk is folded into its own partial
+     * report and the partials are merged pairwise
+     */
+    public RevenueReport report(long fromEpochMillis, long toEpochMillis) {
+        List<String> floors = List.copyOf(floorNames);
+        long rows = Math.min(reserved.get(), (long) chunks.length() << CHUNK_BITS);
+        int chunkCount = (int) ((rows + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        return IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(c -> {
+                    RevenueReport partial = new RevenueReport(floors);
+                    Chunk chunk = chunks.get(c);
+                    if (chunk != null) {
+                        int limit = (int) Math.min(CHUNK_SIZE, rows - ((long) c << CHUNK_BITS));
+                        scan(chunk, limit, partial, floors.size(), fromEpochMillis, toEpochMillis);
+                    }
+                    return partial;
+                })
+                .reduce(RevenueReport::merge)
+                .orElseGet(() -> new RevenueReport(floors));
+    }
+
+    /**
+     * Number of rows reserved so far (including any still being written)
+     */
+    public long size() {
+        return Math.min(reserved.get(), (long) chunks.length() << CHUNK_BITS);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void scan(Chunk chunk, int limit, RevenueReport report, int floorCount, long from, long to) {
+        for (int i = 0; i < limit; i++) {
+            int floorId = (int) INT_ARRAY.getAcquire(chunk.committedFloor, i) - 1;
+            if (floorId < 0 || floorId >= floorCount) {
+                continue; // not committed yet, or floor registered after the snapshot
+            }
+            long closedAt = chunk.entryEpochMillis[i] + chunk.occupancyMillis[i];
+            if (closedAt < from || closedAt >= to) {
+                continue;
+            }
+            report.add(floorId, chunk.spotType[i], chunk.settlement[i],
+                    chunk.amountCents[i], chunk.occupancyMillis[i]);
+        }
+    }
+
+    /**
+     * Dense index for a floor. Real floors are keyed by identity, so two floors
+     * sharing a name keep separate rows; floors appended by name share the name.
+     * The report labels each by name, suffixed with the index when another floor
+     * already uses that name.
+     */
+    private <K> int floorId(ConcurrentHashMap<K, Integer> ids, K key, String floorName) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        // Only the first ticket seen for a floor takes this lock
+        synchronized (floorNames) {
+            return ids.computeIfAbsent(key, k -> newFloorId(floorName));
+        }
+    }
+
+    /**
+     * Own slot for tickets without a floor, kept apart from any floor named "UNASSIGNED"
+     */
+    private int unassignedFloorId() {
+        int id = unassignedFloorId;
+        if (id >= 0) {
+            return id;
+        }
+        synchronized (floorNames) {
+            if (unassignedFloorId < 0) {
+                unassignedFloorId = newFloorId("UNASSIGNED");
+            }
+            return unassignedFloorId;
+        }
+    }
+
+    /**
+     * Allocate the next floor index. Call holding the floorNames lock.
+     */
+    private int newFloorId(String floorName) {
+        floorNames.add(floorNames.contains(floorName) ? floorName + "#" + floorNames.size() : floorName);
+        return floorNames.size() - 1;
+    }
+
+    private Chunk chunk(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            Chunk created = new Chunk();
+            chunk = chunks.compareAndSet(index, null, created) ? created : chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static final class Chunk {
+        final int[] committedFloor = new int[CHUNK_SIZE];
+        final byte[] spotType = new byte[CHUNK_SIZE];
+        final byte[] settlement = new byte[CHUNK_SIZE];
+        final long[] amountCents = new long[CHUNK_SIZE];
+        final long[] entryEpochMillis = new long[CHUNK_SIZE];
+        final long[] occupancyMillis = new long[CHUNK_SIZE];
+    }
+}
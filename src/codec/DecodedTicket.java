@@ -0,0 +1,113 @@
+package codec;
+
+import enums.VehicleType;
+import helpers.TicketIds;
+
+/**
+ * Mutable holder a ticket is decoded into. Reuse one per thread to keep
+ * the scan path free of allocation; only {@link #getPlate()} and
+ * {@link #getTicketIdString()} create objects.
+ */
+public final class DecodedTicket {
+    static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private int version;
+    private int vehicleType;
+    private int floorId;
+    private int spotIndex;
+    private long ticketId;
+    private long entryEpochMillis;
+    private long plateHigh;
+    private long plateLow;
+
+    void set(int version, int vehicleType, int floorId, int spotIndex, long ticketId,
+             long entryEpochMillis, long plateHigh, long plateLow) {
+        this.version = version;
+        this.vehicleType = vehicleType;
+        this.floorId = floorId;
+        this.spotIndex = spotIndex;
+        this.ticketId = ticketId;
+        this.entryEpochMillis = entryEpochMillis;
+        this.plateHigh = plateHigh;
+        this.plateLow = plateLow;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public VehicleType getVehicleType() {
+        return VEHICLE_TYPES[vehicleType];
+    }
+
+    public int getFloorId() {
+        return floorId;
+    }
+
+    public int getSpotIndex() {
+        return spotIndex;
+    }
+
+    public long getTicketId() {
+        return ticketId;
+    }
+
+    public String getTicketIdString() {
+        return TicketIds.format(ticketId);
+    }
+
+    /**
+     * Entry time, truncated to whole seconds
+     */
+    public long getEntryEpochMillis() {
+        return entryEpochMillis;
+    }
+
+    public String getPlate() {
+        return appendPlate(new StringBuilder(TicketCodec.MAX_PLATE_LENGTH)).toString();
+    }
+
+    public StringBuilder appendPlate(StringBuilder out) {
+        for (int i = 0; i < TicketCodec.MAX_PLATE_LENGTH; i++) {
+            int code = plateCode(i);
+            if (code == 0) {
+                break;
+            }
+            out.append(TicketCodec.plateChar(code));
+        }
+        return out;
+    }
+
+    /**
+     * Compare the decoded plate with another without building a String
+     */
+    public boolean plateEquals(CharSequence plate) {
+        int length = plate.length();
+        if (length > TicketCodec.MAX_PLATE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TicketCodec.MAX_PLATE_LENGTH; i++) {
+            int code = plateCode(i);
+            if (i == length) {
+                return code == 0;
+            }
+            if (code == 0 || TicketCodec.plateChar(code) != plate.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int plateCode(int i) {
+        // Character i sits at bit offset 6 * (15 - i) of the 96-bit plate field
+        int shift = 6 * (TicketCodec.MAX_PLATE_LENGTH - 1 - i);
+        long bits = shift >= 32
+                ? plateHigh >>> (shift - 32)
+                : (plateHigh << (32 - shift)) | (plateLow >>> shift);
+        int code = (int) (bits & 0x3F);
+        if (code >= 41) {
+            throw new IllegalArgumentException("Corrupt plate field in ticket " + getTicketIdString());
+        }
+        return code;
+    }
+}
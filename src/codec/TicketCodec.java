@@ -0,0 +1,151 @@
+package codec;
+
+import enums.VehicleType;
+import helpers.TicketIds;
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-width binary form of a ticket, small enough for a QR receipt and cheap
+ * enough to write into a journal on every entry.
+ *
+ * Version 1 layout, 32 bytes, big-endian:
+ * <pre>
+ *  0      version (1)
+ *  1      vehicle type ordinal
+ *  2..3   floor id, unsigned
+ *  4..7   spot index on the floor
+ *  8..15  ticket id (see {@link TicketIds})
+ *  16..19 entry time, unsigned epoch seconds
+ *  20..31 plate, up to 16 characters of 6 bits each
+ * </pre>
+ * Plates may use upper-case letters, digits, space, '-', '.' and '/'.
+ * Encoding and decoding work on the buffer's position and allocate nothing.
+ */
+public final class TicketCodec {
+    public static final byte VERSION = 1;
+    public static final int ENCODED_SIZE = 32;
+    public static final int MAX_PLATE_LENGTH = 16;
+
+    private static final int MAX_FLOOR_ID = 0xFFFF;
+    private static final long MAX_EPOCH_SECONDS = 0xFFFFFFFFL;
+    private static final char[] PLATE_CHARS = "\u00000123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ- ./".toCharArray();
+    private static final byte[] PLATE_CODES = new byte[128];
+
+    static {
+        Arrays.fill(PLATE_CODES, (byte) -1);
+        for (int code = 1; code < PLATE_CHARS.length; code++) {
+            PLATE_CODES[PLATE_CHARS[code]] = (byte) code;
+        }
+    }
+
+    private TicketCodec() {
+    }
+
+    /**
+     * Write a ticket at the buffer's position. The ticket must come from a floor that
+     * belongs to a lot and carry an id from {@link TicketIds}.
+     */
+    public static void encode(ParkingTicket ticket, ByteBuffer out) {
+        ParkingSpot spot = ticket.getSpot();
+        if (spot.getFloor() == null) {
+            throw new IllegalArgumentException("Ticket " + ticket.getTicketId() + " is for a spot that is not on a floor");
+        }
+        encode(TicketIds.parse(ticket.getTicketId()), spot.getFloor().getId(), spot.getIndex(),
+                ticket.getVehicle().getType(), ticket.getVehicle().getNumber(), ticket.getEntryEpochMillis(), out);
+    }
+
+    /**
+     * Write a ticket from its parts at the buffer's position
+     */
+    public static void encode(long ticketId, int floorId, int spotIndex, VehicleType vehicleType,
+                              CharSequence plate, long entryEpochMillis, ByteBuffer out) {
+        if (floorId < 0 || floorId > MAX_FLOOR_ID) {
+            throw new IllegalArgumentException("Floor id out of range: " + floorId);
+        }
+        if (spotIndex < 0) {
+            throw new IllegalArgumentException("Spot index out of range: " + spotIndex);
+        }
+        long entrySeconds = Math.floorDiv(entryEpochMillis, 1000L);
+        if (entrySeconds < 0 || entrySeconds > MAX_EPOCH_SECONDS) {
+            throw new IllegalArgumentException("Entry time out of range: " + entryEpochMillis);
+        }
+        checkPlate(plate);
+        int length = plate.length();
+        // 96 plate bits held as a 64-bit high word and a 32-bit low word
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < MAX_PLATE_LENGTH; i++) {
+            int code = i < length ? PLATE_CODES[plate.charAt(i)] : 0;
+            high = (high << 6) | (low >>> 26);
+            low = ((low << 6) | code) & 0xFFFFFFFFL;
+        }
+        if (out.remaining() < ENCODED_SIZE) {
+            throw new BufferOverflowException();
+        }
+        out.put(VERSION);
+        out.put((byte) vehicleType.ordinal());
+        out.putShort((short) floorId);
+        out.putInt(spotIndex);
+        out.putLong(ticketId);
+        out.putInt((int) entrySeconds);
+        out.putLong(high);
+        out.putInt((int) low);
+    }
+
+    /**
+     * Reject a plate that cannot be written into a receipt, e.g. before a spot is
+     * committed to the vehicle
+     */
+    public static void checkPlate(CharSequence plate) {
+        int length = plate.length();
+        if (length == 0 || length > MAX_PLATE_LENGTH) {
+            throw new IllegalArgumentException("Plate must be 1 to " + MAX_PLATE_LENGTH + " characters: " + plate);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = plate.charAt(i);
+            if (c >= PLATE_CODES.length || PLATE_CODES[c] < 0) {
+                throw new IllegalArgumentException("Plate character '" + c + "' cannot be encoded: " + plate);
+            }
+        }
+    }
+
+    /**
+     * Read a ticket at the buffer's position into a reusable holder
+     *
+     * @return the holder, for chaining
+     */
+    public static DecodedTicket decode(ByteBuffer in, DecodedTicket into) {
+        if (in.remaining() < ENCODED_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        int start = in.position();
+        byte version = in.get(start);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported ticket encoding version " + version);
+        }
+        int vehicleType = in.get(start + 1);
+        if (vehicleType < 0 || vehicleType >= DecodedTicket.VEHICLE_TYPES.length) {
+            throw new IllegalArgumentException("Unknown vehicle type " + vehicleType);
+        }
+        in.position(start + 2);
+        into.set(version,
+                vehicleType,
+                in.getShort() & MAX_FLOOR_ID,
+                in.getInt(),
+                in.getLong(),
+                (in.getInt() & MAX_EPOCH_SECONDS) * 1000L,
+                in.getLong(),
+                in.getInt() & 0xFFFFFFFFL);
+        return into;
+    }
+
+    static char plateChar(int code) {
+        return PLATE_CHARS[code];
+    }
+}
@@ -0,0 +1,219 @@
+package config;
+
+import enums.SpotType;
+import models.ParkingSpot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declarative description of a lot: floors, spot counts per type and gates.
+ *
+ * Text format, one directive per line ({@code #} starts a comment):
+ * <pre>
+ * capacity 250000                       # optional, defaults to total spot count
+ * floor F1 compact=3000 electric=400 motorcycle=500 large=100
+ * entry G1 floor=F1
+ * exit  X1 floor=F1
+ * </pre>
+ */
+public final class LotTopology {
+    private final int capacity;
+    private final List<FloorSpec> floors;
+    private final List<GateSpec> gates;
+
+    public LotTopology(int capacity, List<FloorSpec> floors, List<GateSpec> gates) {
+        this.floors = Collections.unmodifiableList(new ArrayList<>(floors));
+        this.gates = Collections.unmodifiableList(new ArrayList<>(gates));
+        this.capacity = capacity > 0 ? capacity : getTotalSpots();
+    }
+
+    public static LotTopology parse(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader
+                ? (BufferedReader) source : new BufferedReader(source);
+        int capacity = 0;
+        List<FloorSpec> floors = new ArrayList<>();
+        List<GateSpec> gates = new ArrayList<>();
+        Set<String> floorNames = new HashSet<>();
+        Set<String> gateIds = new HashSet<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            if (tokens.length < 2) {
+                throw error(lineNumber, "expected a name after '" + tokens[0] + "'");
+            }
+            switch (tokens[0]) {
+                case "capacity":
+                    capacity = parseCount(tokens[1], lineNumber);
+                    break;
+                case "floor":
+                    if (!floorNames.add(tokens[1])) {
+                        throw error(lineNumber, "duplicate floor " + tokens[1]);
+                    }
+                    floors.add(parseFloor(tokens, lineNumber));
+                    break;
+                case "entry":
+                case "exit":
+                    if (!gateIds.add(tokens[1])) {
+                        throw error(lineNumber, "duplicate gate " + tokens[1]);
+                    }
+                    gates.add(parseGate(tokens, lineNumber));
+                    break;
+                default:
+                    throw error(lineNumber, "unknown directive '" + tokens[0] + "'");
+            }
+        }
+        for (GateSpec gate : gates) {
+            if (!floorNames.contains(gate.getFloorName())) {
+                throw new IllegalArgumentException("Gate " + gate.getId() + " refers to unknown floor " + gate.getFloorName());
+            }
+        }
+        return new LotTopology(capacity, floors, gates);
+    }
+
+    private static FloorSpec parseFloor(String[] tokens, int lineNumber) {
+        Map<SpotType, Integer> counts = new EnumMap<>(SpotType.class);
+        for (int i = 2; i < tokens.length; i++) {
+            String[] pair = keyValue(tokens[i], lineNumber);
+            SpotType type;
+            try {
+                type = SpotType.valueOf(pair[0].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw error(lineNumber, "unknown spot type '" + pair[0] + "'");
+            }
+            if (!ParkingSpot.isSupported(type)) {
+                throw error(lineNumber, "unsupported spot type '" + pair[0] + "'");
+            }
+            counts.merge(type, parseCount(pair[1], lineNumber), Integer::sum);
+        }
+        return new FloorSpec(tokens[1], counts);
+    }
+
+    private static GateSpec parseGate(String[] tokens, int lineNumber) {
+        String floor = null;
+        for (int i = 2; i < tokens.length; i++) {
+            String[] pair = keyValue(tokens[i], lineNumber);
+            if (!pair[0].equals("floor")) {
+                throw error(lineNumber, "unknown gate attribute '" + pair[0] + "'");
+            }
+            floor = pair[1];
+        }
+        if (floor == null) {
+            throw error(lineNumber, "gate " + tokens[1] + " needs floor=<name>");
+        }
+        return new GateSpec(tokens[1], tokens[0].equals("entry"), floor);
+    }
+
+    private static String[] keyValue(String token, int lineNumber) {
+        int eq = token.indexOf('=');
+        if (eq <= 0 || eq == token.length() - 1) {
+            throw error(lineNumber, "expected key=value, got '" + token + "'");
+        }
+        return new String[]{token.substring(0, eq), token.substring(eq + 1)};
+    }
+
+    private static int parseCount(String value, int lineNumber) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count < 0) {
+                throw error(lineNumber, "count must not be negative: " + value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw error(lineNumber, "not a number: " + value);
+        }
+    }
+
+    private static IllegalArgumentException error(int lineNumber, String message) {
+        return new IllegalArgumentException("Topology line " + lineNumber + ": " + message);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public List<FloorSpec> getFloors() {
+        return floors;
+    }
+
+    public List<GateSpec> getGates() {
+        return gates;
+    }
+
+    public int getTotalSpots() {
+        int total = 0;
+        for (FloorSpec floor : floors) {
+            total += floor.getTotalSpots();
+        }
+        return total;
+    }
+
+    public static class FloorSpec {
+        private final String name;
+        private final Map<SpotType, Integer> spotCounts;
+
+        public FloorSpec(String name, Map<SpotType, Integer> spotCounts) {
+            this.name = name;
+            this.spotCounts = Collections.unmodifiableMap(new EnumMap<>(spotCounts.isEmpty()
+                    ? new EnumMap<>(SpotType.class) : spotCounts));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<SpotType, Integer> getSpotCounts() {
+            return spotCounts;
+        }
+
+        public int getTotalSpots() {
+            int total = 0;
+            for (int count : spotCounts.values()) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    public static class GateSpec {
+        private final String id;
+        private final boolean entry;
+        private final String floorName;
+
+        public GateSpec(String id, boolean entry, String floorName) {
+            this.id = id;
+            this.entry = entry;
+            this.floorName = floorName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isEntry() {
+            return entry;
+        }
+
+        public String getFloorName() {
+            return floorName;
+        }
+    }
+}
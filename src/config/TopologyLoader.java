@@ -0,0 +1,94 @@
+package config;
+
+import enums.SpotType;
+import models.EntryPanel;
+import models.ExitPanel;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingSpot;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link ParkingLot} from a {@link LotTopology} in a single pass.
+ * Each floor's spots are created up front and handed to
+ * {@link ParkingFloor#addSpots(List)}, so every manager takes its lock once
+ * per floor instead of once per spot.
+ */
+public class TopologyLoader {
+
+    public LoadedLot load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(LotTopology.parse(reader));
+        }
+    }
+
+    public LoadedLot load(LotTopology topology) {
+        ParkingLot lot = new ParkingLot(topology.getCapacity());
+        Map<String, ParkingFloor> floors = new HashMap<>();
+
+        for (LotTopology.FloorSpec spec : topology.getFloors()) {
+            ParkingFloor floor = new ParkingFloor(spec.getName());
+            List<ParkingSpot> spots = new ArrayList<>(spec.getTotalSpots());
+            for (Map.Entry<SpotType, Integer> entry : spec.getSpotCounts().entrySet()) {
+                for (int i = 0; i < entry.getValue(); i++) {
+                    spots.add(ParkingSpot.of(entry.getKey()));
+                }
+            }
+            floor.addSpots(spots);
+            lot.addFloor(floor);
+            floors.put(spec.getName(), floor);
+        }
+
+        Map<String, EntryPanel> entries = new LinkedHashMap<>();
+        Map<String, ExitPanel> exits = new LinkedHashMap<>();
+        for (LotTopology.GateSpec gate : topology.getGates()) {
+            ParkingFloor floor = floors.get(gate.getFloorName());
+            if (floor == null) {
+                throw new IllegalArgumentException("Gate " + gate.getId() + " refers to unknown floor " + gate.getFloorName());
+            }
+            if (gate.isEntry()) {
+                entries.put(gate.getId(), new EntryPanel(gate.getId(), floor));
+            } else {
+                exits.put(gate.getId(), new ExitPanel(gate.getId(), floor));
+            }
+        }
+        return new LoadedLot(lot, entries, exits);
+    }
+
+    /**
+     * Result of loading a topology: the lot plus its gates keyed by id
+     */
+    public static class LoadedLot {
+        private final ParkingLot lot;
+        private final Map<String, EntryPanel> entryPanels;
+        private final Map<String, ExitPanel> exitPanels;
+
+        LoadedLot(ParkingLot lot, Map<String, EntryPanel> entryPanels, Map<String, ExitPanel> exitPanels) {
+            this.lot = lot;
+            this.entryPanels = entryPanels;
+            this.exitPanels = exitPanels;
+        }
+
+        public ParkingLot getLot() {
+            return lot;
+        }
+
+        public Map<String, EntryPanel> getEntryPanels() {
+            return entryPanels;
+        }
+
+        public Map<String, ExitPanel> getExitPanels() {
+            return exitPanels;
+        }
+    }
+}
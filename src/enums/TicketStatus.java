@@ -1,5 +1,5 @@
 package enums;
 
 public enum TicketStatus {
-    ACTIVE, PAID
+    ACTIVE, PAID, EXITED
 }
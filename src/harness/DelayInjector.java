@@ -0,0 +1,67 @@
+package harness;
+
+import managers.LockHook;
+import managers.VehicleManager;
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingTicket;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Injects random yields and short sleeps at manager lock boundaries and at
+ * event delivery, to shake out interleavings a quiet run would never produce
+ */
+final class DelayInjector implements LockHook, ParkingEventListener {
+    private final double probability;
+    private final long maxDelayNanos;
+    private final LongAdder injected = new LongAdder();
+
+    /**
+     * @param probability   chance of a delay at each boundary
+     * @param maxDelayNanos longest delay; half of the injected delays are plain yields
+     */
+    DelayInjector(double probability, long maxDelayNanos) {
+        this.probability = probability;
+        this.maxDelayNanos = maxDelayNanos;
+    }
+
+    @Override
+    public void beforeLock(VehicleManager manager, String operation) {
+        maybeDelay();
+    }
+
+    @Override
+    public void insideLock(VehicleManager manager, String operation) {
+        maybeDelay();
+    }
+
+    @Override
+    public void onPark(ParkingFloor floor, ParkingTicket ticket) {
+        maybeDelay();
+    }
+
+    @Override
+    public void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+        maybeDelay();
+    }
+
+    long getInjectedCount() {
+        return injected.sum();
+    }
+
+    private void maybeDelay() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (probability <= 0 || random.nextDouble() >= probability) {
+            return;
+        }
+        injected.increment();
+        if (random.nextBoolean()) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(random.nextLong(maxDelayNanos + 1));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package harness;
+
+import enums.VehicleType;
+import models.ParkingTicket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent history of calls. Invocations and responses are stamped from one
+ * atomic counter, so the stamps give the real-time order the checker needs.
+ * Each thread appends to its own list; {@link #ops()} merges them once the run is over.
+ */
+final class History {
+    private final AtomicLong clock = new AtomicLong();
+    private final List<List<Op>> perThread = new ArrayList<>();
+
+    History(int threads) {
+        for (int i = 0; i < threads; i++) {
+            perThread.add(new ArrayList<>());
+        }
+    }
+
+    Op invoke(Op.Kind kind, int thread, VehicleType vehicleType, ParkingTicket argument) {
+        Op op = new Op(kind, thread, vehicleType, argument, clock.incrementAndGet());
+        perThread.get(thread).add(op);
+        return op;
+    }
+
+    void respond(Op op) {
+        op.respondedAt = clock.incrementAndGet();
+    }
+
+    /**
+     * Drop an op that turned out never to have been issued; only from the thread that invoked it
+     */
+    void discard(Op op) {
+        perThread.get(op.thread).remove(op);
+    }
+
+    List<Op> ops() {
+        List<Op> all = new ArrayList<>();
+        for (List<Op> ops : perThread) {
+            all.addAll(ops);
+        }
+        all.sort((a, b) -> Long.compare(a.invokedAt, b.invokedAt));
+        return all;
+    }
+}
@@ -0,0 +1,182 @@
+package harness;
+
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Wing &amp; Gong style search for a linearization, with the state cache from
+ * Lowe's refinement: walk the history's call and return events in time order,
+ * tentatively linearizing any call whose result the model accepts, and backtrack
+ * when a return is reached for a call that has not been linearized yet.
+ * Each (linearized set, model state) pair is explored at most once.
+ */
+final class LinearizabilityChecker {
+    private final ParkingModel model;
+
+    LinearizabilityChecker(ParkingModel model) {
+        this.model = model;
+    }
+
+    /**
+     * @return true if some sequential order consistent with real time explains every result
+     */
+    boolean check(List<Op> ops) {
+        int n = ops.size();
+        resolve(ops);
+
+        // Events 0..2n-1 (call of op i is 2i, its return 2i+1) in a linked list sorted by time
+        int head = 2 * n;
+        int[] next = new int[2 * n + 1];
+        int[] prev = new int[2 * n + 1];
+        Integer[] order = new Integer[2 * n];
+        for (int e = 0; e < 2 * n; e++) {
+            order[e] = e;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(stamp(ops, a), stamp(ops, b)));
+        int last = head;
+        for (int e : order) {
+            next[last] = e;
+            prev[e] = last;
+            last = e;
+        }
+        next[last] = -1;
+
+        ParkingModel.State state = model.initial();
+        BitSet linearized = new BitSet(n);
+        Set<CacheKey> seen = new HashSet<>();
+        Deque<Integer> calls = new ArrayDeque<>();
+        Deque<ParkingModel.State> states = new ArrayDeque<>();
+        int entry = next[head];
+        while (next[head] != -1) {
+            if (entry == -1) {
+                return false;
+            }
+            if (entry % 2 == 0) {
+                int op = entry / 2;
+                ParkingModel.State after = model.step(state, ops.get(op));
+                if (after != null) {
+                    BitSet candidate = (BitSet) linearized.clone();
+                    candidate.set(op);
+                    if (seen.add(new CacheKey(candidate, after))) {
+                        calls.push(entry);
+                        states.push(state);
+                        state = after;
+                        linearized = candidate;
+                        lift(entry, next, prev);
+                        entry = next[head];
+                        continue;
+                    }
+                }
+                entry = next[entry];
+            } else {
+                if (calls.isEmpty()) {
+                    return false;
+                }
+                int call = calls.pop();
+                state = states.pop();
+                linearized.clear(call / 2);
+                unlift(call, next, prev);
+                entry = next[call];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number the ops and resolve what each is about: tickets are numbered by the
+     * op that issued them, and a spot index that was retyped gets a new generation
+     * for each spot that took it over
+     */
+    private static void resolve(List<Op> ops) {
+        Map<ParkingTicket, Integer> ticketIds = new IdentityHashMap<>();
+        Map<ParkingSpot, Integer> generations = new IdentityHashMap<>();
+        for (int i = 0; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            op.id = i;
+            if ((op.kind == Op.Kind.PARK || op.kind == Op.Kind.WAIT) && op.issued != null) {
+                ticketIds.put(op.issued, i);
+            }
+            if (op.kind == Op.Kind.REPLACE && op.replacement != null) {
+                // Ops are in invocation order, so a spot's predecessor is numbered first
+                generations.put(op.replacement, generations.getOrDefault(op.spot, 0) + 1);
+            }
+        }
+        for (Op op : ops) {
+            ParkingTicket ticket = op.argument != null ? op.argument : op.issued;
+            op.ticket = ticket == null ? -1 : ticketIds.getOrDefault(ticket, -1);
+            ParkingSpot spot = op.target();
+            op.spotIndex = spot == null ? -1 : spot.getIndex();
+            op.generation = spot == null ? 0 : generations.getOrDefault(spot, 0);
+        }
+    }
+
+    private static long stamp(List<Op> ops, int event) {
+        Op op = ops.get(event / 2);
+        return event % 2 == 0 ? op.invokedAt : op.respondedAt;
+    }
+
+    /**
+     * Take a call and its return out of the event list
+     */
+    private static void lift(int call, int[] next, int[] prev) {
+        int ret = call + 1;
+        next[prev[call]] = next[call];
+        if (next[call] != -1) {
+            prev[next[call]] = prev[call];
+        }
+        next[prev[ret]] = next[ret];
+        if (next[ret] != -1) {
+            prev[next[ret]] = prev[ret];
+        }
+    }
+
+    /**
+     * Put a lifted call and its return back, in reverse order of removal
+     */
+    private static void unlift(int call, int[] next, int[] prev) {
+        int ret = call + 1;
+        next[prev[ret]] = ret;
+        if (next[ret] != -1) {
+            prev[next[ret]] = ret;
+        }
+        next[prev[call]] = call;
+        if (next[call] != -1) {
+            prev[next[call]] = call;
+        }
+    }
+
+    private static final class CacheKey {
+        final BitSet linearized;
+        final ParkingModel.State state;
+
+        CacheKey(BitSet linearized, ParkingModel.State state) {
+            this.linearized = linearized;
+            this.state = state;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return linearized.equals(other.linearized) && state.equals(other.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(linearized, state);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package harness;
+
+import enums.SpotType;
+import enums.VehicleType;
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+/**
+ * One recorded call: what was asked, what came back, and when it was invoked
+ * and answered on the history's logical clock
+ */
+final class Op {
+    /**
+     * PARK is a drive-up; ENQUEUE joins the lot's wait queue after a full floor and
+     * WAIT is that vehicle's wait for a spot. REMOVE and RETYPE record the call that
+     * starts the drain; DETACH and REPLACE record the spot leaving the manager and,
+     * for a retype, its successor arriving.
+     */
+    enum Kind { PARK, ENQUEUE, WAIT, PAY, EXIT, DISABLE, ENABLE, REMOVE, RETYPE, DETACH, REPLACE, START_LOOP, STOP_LOOP }
+
+    final Kind kind;
+    final int thread;
+    final VehicleType vehicleType;
+    final ParkingTicket argument;
+    final long invokedAt;
+    long respondedAt;
+    ParkingTicket issued;
+    boolean released;
+    double amount;
+    ParkingSpot spot;
+    SpotType newType;
+    ParkingSpot replacement;
+    Op queued;
+    // An exception the call is specified to throw, leaving the floor unchanged
+    Throwable refusal;
+    Throwable failure;
+
+    // Resolved by the checker before it searches: position in the history, the
+    // ticket and spot the call is about, and which incarnation of that spot index
+    int id;
+    int ticket = -1;
+    int spotIndex = -1;
+    int generation;
+
+    Op(Kind kind, int thread, VehicleType vehicleType, ParkingTicket argument, long invokedAt) {
+        this.kind = kind;
+        this.thread = thread;
+        this.vehicleType = vehicleType;
+        this.argument = argument;
+        this.invokedAt = invokedAt;
+    }
+
+    /**
+     * Spot the call is about: the one issued, the ticket's, or the maintenance target
+     */
+    ParkingSpot target() {
+        if (spot != null) {
+            return spot;
+        }
+        ParkingTicket ticket = argument != null ? argument : issued;
+        return ticket == null ? null : ticket.getSpot();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append('[').append(invokedAt).append("..").append(respondedAt).append("] t").append(thread).append(' ');
+        switch (kind) {
+            case PARK:
+            case WAIT:
+                out.append(kind == Kind.PARK ? "park " : "wait ").append(vehicleType).append(" -> ")
+                        .append(issued == null ? "none" : "spot " + issued.getSpot().getIndex());
+                break;
+            case ENQUEUE:
+                out.append("enqueue ").append(vehicleType);
+                break;
+            case PAY:
+                out.append("pay spot ").append(argument.getSpot().getIndex()).append(" -> ").append(amount);
+                break;
+            case EXIT:
+                out.append("exit spot ").append(argument.getSpot().getIndex())
+                        .append(" -> ").append(refusal != null ? "refused" : released ? "released" : "already out");
+                break;
+            case START_LOOP:
+            case STOP_LOOP:
+                out.append(kind == Kind.START_LOOP ? "start loop" : "stop loop");
+                break;
+            default:
+                out.append(kind.name().toLowerCase()).append(" spot ").append(spot.getIndex());
+                if (newType != null) {
+                    out.append(" as ").append(newType);
+                }
+                if (refusal == null) {
+                    out.append(" -> done");
+                }
+        }
+        if (refusal != null) {
+            out.append(" refused ").append(refusal);
+        }
+        if (failure != null) {
+            out.append(" threw ").append(failure);
+        }
+        return out.toString();
+    }
+}
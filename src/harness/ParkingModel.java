@@ -0,0 +1,301 @@
+package harness;
+
+import enums.SpotType;
+import enums.VehicleType;
+import models.ParkingSpot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Sequential specification of a floor in a lot: which ticket holds each spot,
+ * which tickets have exited, the spots' maintenance state, the lot's queue of
+ * waiting vehicles and whether an event loop owns the floor. {@link #step}
+ * answers whether an observed result is one the floor could have produced from
+ * a given state, and what the state becomes.
+ *
+ * The model is exact where the floor promises something: an exit, locked or on
+ * the event loop, hands its spot to the oldest queued vehicle that fits, maintenance is refused
+ * only while a loop runs, a spot leaves its manager only once drained. Where the
+ * floor is free to choose, e.g. which waiter a re-enabled spot goes to, it accepts
+ * any choice the floor could have made.
+ */
+final class ParkingModel {
+    private static final int DISABLED = 1;
+    private static final int PENDING = 2;
+    private static final int REMOVED = 4;
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+
+    private final boolean[][] fits = new boolean[SpotType.values().length][VEHICLE_TYPES];
+    private final int[] initialTypes;
+    private final double expectedFee;
+    private final boolean loopAtStart;
+
+    /**
+     * @param spots       the floor's spots, by spot index
+     * @param expectedFee what a payment must charge under the harness's frozen clock
+     * @param loopAtStart whether an event loop owns the floor when the history begins
+     */
+    ParkingModel(List<ParkingSpot> spots, double expectedFee, boolean loopAtStart) {
+        for (SpotType spotType : SpotType.values()) {
+            if (ParkingSpot.isSupported(spotType)) {
+                ParkingSpot sample = ParkingSpot.of(spotType);
+                for (VehicleType vehicleType : VehicleType.values()) {
+                    fits[spotType.ordinal()][vehicleType.ordinal()] = sample.canFit(vehicleType);
+                }
+            }
+        }
+        this.initialTypes = new int[spots.size()];
+        for (ParkingSpot spot : spots) {
+            initialTypes[spot.getIndex()] = spot.getSpotType().ordinal();
+        }
+        this.expectedFee = expectedFee;
+        this.loopAtStart = loopAtStart;
+    }
+
+    State initial() {
+        int[] occupant = new int[initialTypes.length];
+        Arrays.fill(occupant, -1);
+        return new State(occupant, new int[initialTypes.length], initialTypes.clone(),
+                new int[initialTypes.length], new BitSet(), new int[0], loopAtStart);
+    }
+
+    /**
+     * @return the next state, or null if the observed result is impossible from {@code state}
+     */
+    State step(State state, Op op) {
+        int s = op.spotIndex;
+        switch (op.kind) {
+            case PARK:
+                if (op.issued == null) {
+                    for (int spot = 0; spot < state.occupant.length; spot++) {
+                        if (usable(state, spot) && fits(state, spot, op.vehicleType.ordinal())) {
+                            return null; // A fitting spot was free
+                        }
+                    }
+                    return state;
+                }
+                if (!current(state, op) || !usable(state, s) || !fits(state, s, op.vehicleType.ordinal())) {
+                    return null;
+                }
+                return state.withOccupant(s, op.ticket);
+            case ENQUEUE: {
+                State next = state.copy();
+                next.queue = Arrays.copyOf(state.queue, state.queue.length + 1);
+                next.queue[state.queue.length] = op.id * VEHICLE_TYPES + op.vehicleType.ordinal();
+                return next;
+            }
+            case WAIT: {
+                int waiter = op.queued.id;
+                int position = queuePosition(state, waiter);
+                if (op.issued == null) {
+                    return position < 0 ? null : state.withoutWaiter(position); // Gave up
+                }
+                if (!current(state, op)) {
+                    return null;
+                }
+                if (state.occupant[s] == reservedFor(waiter)) {
+                    return state.withOccupant(s, op.ticket); // Handed over by an exit
+                }
+                if (position < 0 || !usable(state, s) || !fits(state, s, op.vehicleType.ordinal())) {
+                    return null;
+                }
+                return state.withoutWaiter(position).withOccupant(s, op.ticket); // Served from a free spot
+            }
+            case PAY:
+                return op.amount == expectedFee ? state : null;
+            case EXIT: {
+                if (op.refusal != null) {
+                    return op.refusal instanceof IllegalArgumentException ? state : null; // Wrong floor
+                }
+                if (state.exited.get(op.ticket)) {
+                    return op.released ? null : state;
+                }
+                if (!op.released || state.occupant[s] != op.ticket) {
+                    return null;
+                }
+                State next = state.copy();
+                next.exited = (BitSet) state.exited.clone();
+                next.exited.set(op.ticket);
+                int position = (state.flags[s] & DISABLED) != 0 ? -1 : oldestFitting(state, s);
+                if (position < 0) {
+                    return next.withOccupant(s, -1);
+                }
+                int waiter = state.queue[position] / VEHICLE_TYPES;
+                return next.withoutWaiter(position).withOccupant(s, reservedFor(waiter));
+            }
+            case DISABLE:
+            case ENABLE:
+            case REMOVE:
+            case RETYPE: {
+                if (op.refusal instanceof IllegalStateException) {
+                    return state.loop ? state : null;
+                }
+                boolean stale = !current(state, op) || (state.flags[s] & REMOVED) != 0;
+                if (op.refusal instanceof IllegalArgumentException) {
+                    return stale ? state : null;
+                }
+                if (op.refusal != null || stale || state.loop) {
+                    return null;
+                }
+                int flags = op.kind == Op.Kind.DISABLE ? state.flags[s] | DISABLED
+                        : op.kind == Op.Kind.ENABLE ? state.flags[s] & ~(DISABLED | PENDING)
+                        : state.flags[s] | DISABLED | PENDING;
+                return state.withFlags(s, flags);
+            }
+            case DETACH:
+            case REPLACE: {
+                if (!current(state, op)) {
+                    return null;
+                }
+                int flags = state.flags[s];
+                if (op.refusal instanceof CancellationException) {
+                    // Re-enabled before it drained
+                    return (flags & (PENDING | REMOVED)) == 0 ? state : null;
+                }
+                if (op.kind == Op.Kind.DETACH) {
+                    if (op.refusal != null || (flags & (PENDING | DISABLED | REMOVED)) != (PENDING | DISABLED)
+                            || state.occupant[s] != -1) {
+                        return null;
+                    }
+                    return state.withFlags(s, REMOVED);
+                }
+                if ((flags & REMOVED) == 0) {
+                    return null;
+                }
+                if (op.refusal != null || state.loop) {
+                    return null;
+                }
+                State next = state.withFlags(s, 0);
+                next.generation[s]++;
+                next.type[s] = op.newType.ordinal();
+                return next;
+            }
+            case START_LOOP:
+            case STOP_LOOP: {
+                boolean starting = op.kind == Op.Kind.START_LOOP;
+                if (state.loop == starting) {
+                    return null;
+                }
+                State next = state.copy();
+                next.loop = starting;
+                return next;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown op kind " + op.kind);
+        }
+    }
+
+    private boolean fits(State state, int spot, int vehicleType) {
+        return fits[state.type[spot]][vehicleType];
+    }
+
+    private static boolean usable(State state, int spot) {
+        return state.occupant[spot] == -1 && (state.flags[spot] & (DISABLED | REMOVED)) == 0;
+    }
+
+    /**
+     * Whether the op's spot is the incarnation currently at its index
+     */
+    private static boolean current(State state, Op op) {
+        return state.generation[op.spotIndex] == op.generation;
+    }
+
+    private static int reservedFor(int waiter) {
+        return -2 - waiter;
+    }
+
+    private static int queuePosition(State state, int waiter) {
+        for (int i = 0; i < state.queue.length; i++) {
+            if (state.queue[i] / VEHICLE_TYPES == waiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int oldestFitting(State state, int spot) {
+        for (int i = 0; i < state.queue.length; i++) {
+            if (fits(state, spot, state.queue[i] % VEHICLE_TYPES)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class State {
+        // Ticket id per spot index; -1 when empty, reservedFor(waiter) while being handed over
+        int[] occupant;
+        int[] generation;
+        int[] type;
+        int[] flags;
+        BitSet exited;
+        // Waiter id * VEHICLE_TYPES + vehicle type, oldest first
+        int[] queue;
+        boolean loop;
+
+        State(int[] occupant, int[] generation, int[] type, int[] flags, BitSet exited, int[] queue, boolean loop) {
+            this.occupant = occupant;
+            this.generation = generation;
+            this.type = type;
+            this.flags = flags;
+            this.exited = exited;
+            this.queue = queue;
+            this.loop = loop;
+        }
+
+        /**
+         * Shallow copy; callers clone whichever array they change
+         */
+        State copy() {
+            return new State(occupant, generation, type, flags, exited, queue, loop);
+        }
+
+        State withOccupant(int spot, int ticket) {
+            State next = copy();
+            next.occupant = occupant.clone();
+            next.occupant[spot] = ticket;
+            return next;
+        }
+
+        State withFlags(int spot, int value) {
+            State next = copy();
+            next.flags = flags.clone();
+            next.flags[spot] = value;
+            next.generation = generation.clone();
+            next.type = type.clone();
+            return next;
+        }
+
+        State withoutWaiter(int position) {
+            State next = copy();
+            next.queue = new int[queue.length - 1];
+            System.arraycopy(queue, 0, next.queue, 0, position);
+            System.arraycopy(queue, position + 1, next.queue, position, queue.length - position - 1);
+            return next;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State other = (State) o;
+            return loop == other.loop && Arrays.equals(occupant, other.occupant)
+                    && Arrays.equals(generation, other.generation) && Arrays.equals(type, other.type)
+                    && Arrays.equals(flags, other.flags) && Arrays.equals(queue, other.queue)
+                    && exited.equals(other.exited);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Arrays.hashCode(occupant);
+            hash = 31 * hash + Arrays.hashCode(flags);
+            hash = 31 * hash + Arrays.hashCode(generation);
+            hash = 31 * hash + Arrays.hashCode(queue);
+            return 31 * hash + exited.hashCode() + (loop ? 1 : 0);
+        }
+    }
+}
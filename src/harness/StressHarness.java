@@ -0,0 +1,161 @@
+package harness;
+
+import enums.VehicleType;
+import managers.VehicleManager;
+import models.ParkingFloor;
+import models.ParkingSpot;
+import models.ParkingTicket;
+import models.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Concurrency harness for the floor's park, pay and exit paths, the lot's wait
+ * queue, spot maintenance and event-loop handover.
+ *
+ * For every {@link Variant} it runs many short trials on a tiny floor with
+ * random delays injected at lock boundaries and event delivery, and checks each
+ * recorded history for linearizability against {@link ParkingModel}. It then runs
+ * a longer stress pass on a larger floor and checks the quiescent state: no spot
+ * held twice, no leaked spot, free counters that match the spots, an empty wait
+ * queue and exactly one charge per paid ticket.
+ *
+ * Usage: {@code java harness.StressHarness [--runs N] [--threads N] [--ops N] [--seed N]}.
+ * Exits with status 1 if any check fails.
+ */
+public class StressHarness {
+    private static final int TRIAL_SPOTS = 3;
+    private static final int STRESS_SPOTS = 24;
+    private static final int STRESS_THREADS = 16;
+    private static final int STRESS_OPS = 2_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int runs = 200;
+        int threads = 4;
+        int ops = 24;
+        long seed = System.nanoTime();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--runs": runs = Integer.parseInt(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--ops": ops = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        System.out.println("=== Stress Harness: " + runs + " runs x " + threads + " threads x " + ops
+                + " ops, seed " + seed + " ===\n");
+
+        boolean ok = selfTest();
+        System.out.printf("%-34s %8s %10s %12s %10s  %s%n",
+                "Variant", "Runs", "Ops", "Ops/s", "Delays", "Result");
+        for (Variant variant : Variant.values()) {
+            ok &= runVariant(variant, runs, threads, ops, seed);
+        }
+        System.out.println(ok ? "\nAll checks passed" : "\nFAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean runVariant(Variant variant, int runs, int threads, int ops, long seed)
+            throws InterruptedException {
+        DelayInjector injector = new DelayInjector(0.2, 50_000);
+        long totalOps = 0;
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            long runSeed = seed + run;
+            Workload workload = new Workload(variant, TRIAL_SPOTS, threads, ops, injector);
+            List<Op> history = workload.run(runSeed).ops();
+            totalOps += history.size();
+            List<String> problems = workload.checkQuiescentState();
+            problems.addAll(failures(history));
+            LinearizabilityChecker checker = new LinearizabilityChecker(
+                    new ParkingModel(workload.getInitialSpots(), Workload.EXPECTED_FEE, variant.usesEventLoop()));
+            if (!checker.check(history)) {
+                problems.add("history is not linearizable");
+            }
+            if (!problems.isEmpty()) {
+                report(variant, "run " + run + " (seed " + runSeed + ")", problems, history);
+                return false;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-34s %8d %10d %12.0f %10d  %s%n", variant + " (checked)", runs, totalOps,
+                totalOps / seconds, injector.getInjectedCount(), "linearizable");
+
+        DelayInjector light = new DelayInjector(0.01, 20_000);
+        Workload stress = new Workload(variant, STRESS_SPOTS, STRESS_THREADS, STRESS_OPS, light);
+        start = System.nanoTime();
+        List<Op> history = stress.run(seed).ops();
+        seconds = (System.nanoTime() - start) / 1e9;
+        List<String> problems = stress.checkQuiescentState();
+        problems.addAll(failures(history));
+        if (!problems.isEmpty()) {
+            report(variant, "stress pass", problems, List.of());
+            return false;
+        }
+        System.out.printf("%-34s %8d %10d %12.0f %10d  %s%n", variant + " (stress)", 1, history.size(),
+                history.size() / seconds, light.getInjectedCount(), "consistent");
+        return true;
+    }
+
+    private static List<String> failures(List<Op> history) {
+        List<String> problems = new ArrayList<>();
+        for (Op op : history) {
+            if (op.failure != null) {
+                problems.add("call failed: " + op);
+            }
+        }
+        return problems;
+    }
+
+    private static void report(Variant variant, String where, List<String> problems, List<Op> history) {
+        System.out.println(variant + ": " + where + " FAILED");
+        for (String problem : problems) {
+            System.out.println("  " + problem);
+        }
+        for (Op op : history) {
+            System.out.println("    " + op);
+        }
+    }
+
+    /**
+     * Make sure the checker rejects a history it should reject: two overlapping
+     * parks handed the same spot
+     */
+    private static boolean selfTest() {
+        ParkingFloor floor = Variant.FOUR_WHEELER_LOCKED.buildFloor(1);
+        ParkingSpot spot = null;
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            if (!manager.getSpots().isEmpty()) {
+                spot = manager.getSpots().get(0);
+            }
+        }
+        ParkingModel model = new ParkingModel(List.of(spot), Workload.EXPECTED_FEE, false);
+
+        History good = new History(2);
+        Op first = good.invoke(Op.Kind.PARK, 0, VehicleType.CAR, null);
+        Op second = good.invoke(Op.Kind.PARK, 1, VehicleType.CAR, null);
+        first.issued = new ParkingTicket("a", new Vehicle("A", VehicleType.CAR), spot);
+        good.respond(first);
+        good.respond(second); // Found the floor full
+        Op exit = good.invoke(Op.Kind.EXIT, 0, null, first.issued);
+        exit.released = true;
+        good.respond(exit);
+
+        History bad = new History(2);
+        first = bad.invoke(Op.Kind.PARK, 0, VehicleType.CAR, null);
+        second = bad.invoke(Op.Kind.PARK, 1, VehicleType.CAR, null);
+        first.issued = new ParkingTicket("a", new Vehicle("A", VehicleType.CAR), spot);
+        second.issued = new ParkingTicket("b", new Vehicle("B", VehicleType.CAR), spot);
+        bad.respond(first);
+        bad.respond(second);
+
+        LinearizabilityChecker checker = new LinearizabilityChecker(model);
+        boolean ok = checker.check(good.ops()) && !checker.check(bad.ops());
+        System.out.println("Checker self-test: " + (ok ? "passed" : "FAILED") + "\n");
+        return ok;
+    }
+}
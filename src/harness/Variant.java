@@ -0,0 +1,65 @@
+package harness;
+
+import enums.SpotType;
+import enums.VehicleType;
+import models.FloorEventLoop;
+import models.ParkingFloor;
+import models.ParkingSpot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A floor configuration under test: which manager the traffic exercises and
+ * whether the floor runs on its locked managers or its single-writer event loop
+ */
+enum Variant {
+    TWO_WHEELER_LOCKED(false, new SpotType[]{SpotType.MOTORCYCLE}, VehicleType.MOTORCYCLE),
+    FOUR_WHEELER_LOCKED(false, new SpotType[]{SpotType.COMPACT, SpotType.ELECTRIC}, VehicleType.CAR, VehicleType.ELECTRIC),
+    LARGE_VEHICLE_LOCKED(false, new SpotType[]{SpotType.LARGE}, VehicleType.TRUCK, VehicleType.VAN),
+    TWO_WHEELER_EVENT_LOOP(true, new SpotType[]{SpotType.MOTORCYCLE}, VehicleType.MOTORCYCLE),
+    FOUR_WHEELER_EVENT_LOOP(true, new SpotType[]{SpotType.COMPACT, SpotType.ELECTRIC}, VehicleType.CAR, VehicleType.ELECTRIC),
+    LARGE_VEHICLE_EVENT_LOOP(true, new SpotType[]{SpotType.LARGE}, VehicleType.TRUCK, VehicleType.VAN);
+
+    private final boolean eventLoop;
+    private final SpotType[] spotTypes;
+    private final VehicleType[] vehicleTypes;
+
+    Variant(boolean eventLoop, SpotType[] spotTypes, VehicleType... vehicleTypes) {
+        this.eventLoop = eventLoop;
+        this.spotTypes = spotTypes;
+        this.vehicleTypes = vehicleTypes;
+    }
+
+    /**
+     * A fresh floor with {@code spots} spots, cycling through this variant's spot types
+     */
+    ParkingFloor buildFloor(int spots) {
+        ParkingFloor floor = new ParkingFloor(name());
+        List<ParkingSpot> created = new ArrayList<>();
+        for (int i = 0; i < spots; i++) {
+            created.add(ParkingSpot.of(spotTypes[i % spotTypes.length]));
+        }
+        floor.addSpots(created);
+        return floor;
+    }
+
+    /**
+     * Start the event loop if this variant uses one; null otherwise
+     */
+    FloorEventLoop start(ParkingFloor floor) {
+        return eventLoop ? new FloorEventLoop(floor).start() : null;
+    }
+
+    boolean usesEventLoop() {
+        return eventLoop;
+    }
+
+    SpotType[] getSpotTypes() {
+        return spotTypes;
+    }
+
+    VehicleType[] getVehicleTypes() {
+        return vehicleTypes;
+    }
+}
@@ -0,0 +1,580 @@
+package harness;
+
+import enums.PaymentMode;
+import enums.SpotType;
+import enums.VehicleType;
+import helpers.HourlyPricingStrategy;
+import helpers.ManualTimeSource;
+import helpers.TicketIds;
+import managers.SpotWaitQueue;
+import managers.VehicleManager;
+import models.FloorEventLoop;
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingSpot;
+import models.ParkingTicket;
+import models.Vehicle;
+import service.PaymentService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives one floor of a lot from several threads with a seeded mix of calls,
+ * recording every call in a {@link History}.
+ *
+ * Drivers park, pay and exit. A driver turned away by a full floor may join the
+ * lot's wait queue and give up after a while. Some exits are retried from other
+ * threads, the way a retrying exit gate would, and some are sent to the wrong
+ * floor. Some payments go through the retry-safe path and are repeated from
+ * other threads with the same request id.
+ *
+ * Listeners must see every ticket's park before its release, handed-over
+ * waiters included.
+ *
+ * One more thread does maintenance: it disables, enables, removes and retypes
+ * spots, including stale ones that have already left the floor. On event-loop
+ * variants it also stops and restarts the loop, tries maintenance while the loop
+ * runs, and cancels unfinished drains before handing the floor back to a loop.
+ */
+final class Workload {
+    // The harness clock never moves, so every payment is for one hour
+    static final double EXPECTED_FEE = new HourlyPricingStrategy().calculate(1);
+    // Waiters give up on their own; on the frozen clock this is never reached
+    private static final long WAIT_TIMEOUT_MILLIS = 60_000;
+
+    private final Variant variant;
+    private final int spots;
+    private final int threads;
+    private final int opsPerThread;
+    private final DelayInjector injector;
+
+    private ParkingLot lot;
+    private ParkingFloor floor;
+    private ParkingFloor elsewhere;
+    private PaymentService payments;
+    private List<ParkingSpot> initialSpots;
+    private final List<ParkingTicket> issued = new ArrayList<>();
+    private final Map<ParkingTicket, Boolean> paid = new IdentityHashMap<>();
+    private final Map<ParkingTicket, AtomicInteger> charges = Collections.synchronizedMap(new IdentityHashMap<>());
+    // Tickets whose park listeners have been told about, and events seen out of order
+    private final Map<ParkingTicket, Boolean> announced = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ConcurrentLinkedQueue<String> eventProblems = new ConcurrentLinkedQueue<>();
+
+    Workload(Variant variant, int spots, int threads, int opsPerThread, DelayInjector injector) {
+        this.variant = variant;
+        this.spots = spots;
+        this.threads = threads;
+        this.opsPerThread = opsPerThread;
+        this.injector = injector;
+    }
+
+    /**
+     * Run the workload on a fresh lot and return its history
+     */
+    History run(long seed) throws InterruptedException {
+        lot = new ParkingLot(spots);
+        floor = variant.buildFloor(spots);
+        elsewhere = new ParkingFloor("ELSEWHERE");
+        lot.addFloor(floor);
+        lot.addFloor(elsewhere);
+        lot.setTimeSource(new ManualTimeSource(0));
+        floor.addListener(injector);
+        floor.addListener(new ParkingEventListener() {
+            @Override
+            public void onPark(ParkingFloor at, ParkingTicket ticket) {
+                announced.put(ticket, Boolean.TRUE);
+            }
+
+            @Override
+            public void onRelease(ParkingFloor at, ParkingTicket ticket) {
+                if (announced.remove(ticket) == null) {
+                    eventProblems.add("ticket " + ticket.getTicketId() + " released before its park was announced");
+                }
+            }
+        });
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            manager.setLockHook(injector);
+        }
+        initialSpots = currentSpots();
+        variant.start(floor);
+        payments = new PaymentService(new HourlyPricingStrategy());
+        payments.setVerbose(false);
+        payments.addListener((ticket, mode, amount) ->
+                charges.computeIfAbsent(ticket, t -> new AtomicInteger()).incrementAndGet());
+
+        History history = new History(threads + 1);
+        ConcurrentLinkedQueue<ParkingTicket> handedOff = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Map.Entry<String, ParkingTicket>> retriedPayments = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[threads];
+        Thread[] running = new Thread[threads + 1];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(t, new Random(seed * 31 + t), history, start, handedOff, retriedPayments);
+            running[t] = new Thread(workers[t], "harness-" + t);
+        }
+        running[threads] = new Thread(new Maintainer(new Random(seed * 31 + threads), history, start),
+                "harness-maintenance");
+        for (Thread thread : running) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+        for (Worker worker : workers) {
+            issued.addAll(worker.issued);
+            for (ParkingTicket ticket : worker.paid) {
+                paid.put(ticket, Boolean.TRUE);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Check the lot's state once all threads have finished; returns the problems found
+     */
+    List<String> checkQuiescentState() throws InterruptedException {
+        List<String> problems = new ArrayList<>();
+        Map<ParkingSpot, ParkingTicket> holders = new IdentityHashMap<>();
+        for (ParkingTicket ticket : issued) {
+            if (ticket.isExited()) {
+                continue;
+            }
+            ParkingTicket other = holders.put(ticket.getSpot(), ticket);
+            if (other != null) {
+                problems.add("spot " + ticket.getSpot().getIndex() + " held by two active tickets");
+            }
+            if (!ticket.getSpot().isOccupied()) {
+                problems.add("spot " + ticket.getSpot().getIndex() + " is free but its ticket is active");
+            }
+        }
+        List<ParkingSpot> managed = currentSpots();
+        FloorEventLoop loop = floor.getEventLoop();
+        if (loop != null) {
+            // The loop's free lists must agree with the spots it owns
+            for (SpotType type : SpotType.values()) {
+                int free = 0;
+                for (ParkingSpot spot : managed) {
+                    if (spot.getSpotType() == type && spot.isFree()) {
+                        free++;
+                    }
+                }
+                if (loop.getSnapshot().getFreeCount(type) != free) {
+                    problems.add("event loop snapshot shows " + loop.getSnapshot().getFreeCount(type) + " free "
+                            + type + " spots, " + free + " are free");
+                }
+            }
+            loop.stop();
+        }
+        int occupied = 0;
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            int free = 0;
+            for (ParkingSpot spot : manager.getSpots()) {
+                if (spot.isFree()) {
+                    free++;
+                } else if (spot.isOccupied()) {
+                    occupied++;
+                }
+            }
+            if (free != manager.getAvailableSpotsCount()) {
+                problems.add(manager.getClass().getSimpleName() + " counts " + manager.getAvailableSpotsCount()
+                        + " free spots, " + free + " are free");
+            }
+        }
+        if (occupied != holders.size()) {
+            problems.add(occupied + " spots occupied, " + holders.size() + " tickets active");
+        }
+        if (lot.getWaitQueue().hasWaiters()) {
+            problems.add("wait queue still has waiters after every driver gave up or parked");
+        }
+        for (ParkingTicket ticket : paid.keySet()) {
+            AtomicInteger charged = charges.get(ticket);
+            int times = charged == null ? 0 : charged.get();
+            if (times != 1 || ticket.getPaidAmount() != EXPECTED_FEE) {
+                problems.add("ticket " + ticket.getTicketId() + " charged " + times + " times, recorded "
+                        + ticket.getPaidAmount());
+            }
+        }
+        problems.addAll(eventProblems);
+        if (charges.size() != paid.size()) {
+            problems.add(charges.size() + " tickets charged, " + paid.size() + " paid for");
+        }
+        return problems;
+    }
+
+    /**
+     * The floor's spots as built, by index
+     */
+    List<ParkingSpot> getInitialSpots() {
+        return initialSpots;
+    }
+
+    private List<ParkingSpot> currentSpots() {
+        List<ParkingSpot> all = new ArrayList<>();
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            all.addAll(manager.getSpots());
+        }
+        all.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return all;
+    }
+
+    /**
+     * One driver thread
+     */
+    private final class Worker implements Runnable {
+        private final int thread;
+        private final Random random;
+        private final History history;
+        private final CountDownLatch start;
+        private final ConcurrentLinkedQueue<ParkingTicket> handedOff;
+        private final ConcurrentLinkedQueue<Map.Entry<String, ParkingTicket>> retriedPayments;
+        private final List<ParkingTicket> active = new ArrayList<>();
+        final List<ParkingTicket> issued = new ArrayList<>();
+        final List<ParkingTicket> paid = new ArrayList<>();
+
+        Worker(int thread, Random random, History history, CountDownLatch start,
+               ConcurrentLinkedQueue<ParkingTicket> handedOff,
+               ConcurrentLinkedQueue<Map.Entry<String, ParkingTicket>> retriedPayments) {
+            this.thread = thread;
+            this.random = random;
+            this.history = history;
+            this.start = start;
+            this.handedOff = handedOff;
+            this.retriedPayments = retriedPayments;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (int i = 0; i < opsPerThread; i++) {
+                double choice = random.nextDouble();
+                if (active.isEmpty() || choice < 0.45) {
+                    park(i);
+                } else if (choice < 0.65) {
+                    pay(i);
+                } else if (choice < 0.7) {
+                    exitOnWrongFloor();
+                } else {
+                    exit(choice < 0.95 || handedOff.isEmpty()
+                            ? active.remove(random.nextInt(active.size()))
+                            : handedOff.poll());
+                }
+            }
+        }
+
+        private void park(int i) {
+            VehicleType[] types = variant.getVehicleTypes();
+            Vehicle vehicle = new Vehicle("T" + thread + "-" + i, types[random.nextInt(types.length)]);
+            Op op = history.invoke(Op.Kind.PARK, thread, vehicle.getType(), null);
+            try {
+                op.issued = floor.parkVehicle(vehicle);
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+            if (op.issued != null) {
+                keep(op.issued);
+            } else if (op.failure == null && random.nextInt(3) == 0) {
+                waitForSpot(vehicle);
+            }
+        }
+
+        /**
+         * Queue for a spot and give up after a short, random patience
+         */
+        private void waitForSpot(Vehicle vehicle) {
+            Op enqueue = history.invoke(Op.Kind.ENQUEUE, thread, vehicle.getType(), null);
+            // Invoked up front: the vehicle can be served before enqueue() returns
+            Op op = history.invoke(Op.Kind.WAIT, thread, vehicle.getType(), null);
+            op.queued = enqueue;
+            SpotWaitQueue.Waiter waiter;
+            try {
+                waiter = lot.getWaitQueue().enqueue(vehicle, TicketIds.next(), WAIT_TIMEOUT_MILLIS);
+            } catch (Throwable e) {
+                enqueue.failure = e;
+                history.respond(enqueue);
+                history.discard(op);
+                return;
+            }
+            history.respond(enqueue);
+            try {
+                op.issued = waiter.getFuture().get(1 + random.nextInt(500), TimeUnit.MICROSECONDS);
+            } catch (TimeoutException e) {
+                // Losing the cancel means a spot was handed over in the meantime
+                op.issued = waiter.cancel() ? null : waiter.getFuture().join();
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+            if (op.issued != null) {
+                keep(op.issued);
+            }
+        }
+
+        private void pay(int i) {
+            ParkingTicket ticket = active.get(random.nextInt(active.size()));
+            Map.Entry<String, ParkingTicket> retry = random.nextInt(4) == 0 ? retriedPayments.poll() : null;
+            String requestId;
+            if (retry != null) {
+                requestId = retry.getKey();
+                ticket = retry.getValue();
+            } else {
+                requestId = random.nextBoolean() ? null : "pay-" + thread + "-" + i;
+            }
+            Op op = history.invoke(Op.Kind.PAY, thread, null, ticket);
+            try {
+                op.amount = requestId == null
+                        ? payments.pay(ticket, PaymentMode.CARD)
+                        : payments.payOnce(requestId, ticket, PaymentMode.CARD);
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+            paid.add(ticket);
+            if (retry == null && requestId != null && random.nextInt(3) == 0) {
+                retriedPayments.add(Map.entry(requestId, ticket)); // A gate retries it, possibly concurrently
+            }
+        }
+
+        private void exitOnWrongFloor() {
+            ParkingTicket ticket = active.get(random.nextInt(active.size()));
+            Op op = history.invoke(Op.Kind.EXIT, thread, null, ticket);
+            try {
+                op.released = elsewhere.releaseVehicle(ticket);
+                op.failure = new IllegalStateException("Floor " + elsewhere.getName() + " accepted a ticket for "
+                        + floor.getName());
+            } catch (IllegalArgumentException e) {
+                op.refusal = e;
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+        }
+
+        private void exit(ParkingTicket ticket) {
+            if (ticket == null) {
+                return;
+            }
+            if (random.nextInt(4) == 0) {
+                handedOff.add(ticket); // Someone else retries this exit, possibly concurrently
+            }
+            Op op = history.invoke(Op.Kind.EXIT, thread, null, ticket);
+            try {
+                op.released = floor.releaseVehicle(ticket);
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+        }
+
+        private void keep(ParkingTicket ticket) {
+            active.add(ticket);
+            issued.add(ticket);
+        }
+    }
+
+    /**
+     * The maintenance thread
+     */
+    private final class Maintainer implements Runnable {
+        private final Random random;
+        private final History history;
+        private final CountDownLatch start;
+        private final int thread = threads;
+        // Every spot seen so far, including ones that have since left the floor
+        private final List<ParkingSpot> seen = new ArrayList<>(initialSpots);
+        // Removals and retypes that have not settled yet, by spot
+        private final Map<ParkingSpot, CompletableFuture<Void>> draining = new IdentityHashMap<>();
+
+        Maintainer(Random random, History history, CountDownLatch start) {
+            this.random = random;
+            this.history = history;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (int i = 0; i < opsPerThread / 2; i++) {
+                LockSupport.parkNanos(random.nextInt(100_000));
+                boolean looping = floor.getEventLoop() != null;
+                if (looping && random.nextInt(3) != 0) {
+                    stopLoop();
+                } else if (!looping && variant.usesEventLoop() && random.nextInt(4) == 0) {
+                    startLoop();
+                } else {
+                    maintain(); // Refused while the loop runs
+                }
+            }
+            settle();
+        }
+
+        private void maintain() {
+            ParkingSpot spot = pick();
+            CompletableFuture<Void> previous = draining.get(spot);
+            if (previous != null && previous.isDone()) {
+                draining.remove(spot);
+                previous = null;
+            }
+            int choice = random.nextInt(10);
+            Op.Kind kind = choice < 3 ? Op.Kind.DISABLE : choice < 6 ? Op.Kind.ENABLE
+                    : previous != null ? Op.Kind.DISABLE : choice < 8 ? Op.Kind.REMOVE : Op.Kind.RETYPE;
+            Op op = history.invoke(kind, thread, null, null);
+            op.spot = spot;
+            Op detach = null;
+            Op replace = null;
+            if (kind == Op.Kind.REMOVE || kind == Op.Kind.RETYPE) {
+                // Invoked up front: a free spot can finish leaving before the call returns
+                detach = history.invoke(Op.Kind.DETACH, thread, null, null);
+                detach.spot = spot;
+            }
+            if (kind == Op.Kind.RETYPE) {
+                SpotType[] types = variant.getSpotTypes();
+                op.newType = types[random.nextInt(types.length)];
+                replace = history.invoke(Op.Kind.REPLACE, thread, null, null);
+                replace.spot = spot;
+                replace.newType = op.newType;
+            }
+            CompletableFuture<ParkingSpot> pending = null;
+            try {
+                switch (kind) {
+                    case DISABLE:
+                        floor.disableSpot(spot);
+                        break;
+                    case ENABLE:
+                        floor.enableSpot(spot);
+                        break;
+                    case REMOVE:
+                        pending = floor.removeSpot(spot);
+                        break;
+                    default:
+                        pending = floor.retypeSpot(spot, op.newType);
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                op.refusal = e;
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+            if (pending == null) {
+                if (detach != null) {
+                    history.discard(detach);
+                }
+                if (replace != null) {
+                    history.discard(replace);
+                }
+                return;
+            }
+            Op detached = detach;
+            Op replaced = replace;
+            draining.put(spot, pending.handle((replacement, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause == null) {
+                    if (replaced != null) {
+                        replaced.replacement = replacement;
+                    }
+                } else if (cause instanceof CancellationException) {
+                    detached.refusal = cause;
+                    if (replaced != null) {
+                        replaced.refusal = cause;
+                    }
+                } else {
+                    detached.failure = cause;
+                }
+                history.respond(detached);
+                if (replaced != null) {
+                    history.respond(replaced);
+                }
+                return null;
+            }));
+        }
+
+        /**
+         * A spot on the floor, or now and then one that may already have left it
+         */
+        private ParkingSpot pick() {
+            ParkingSpot spot = floor.findSpot(random.nextInt(spots));
+            if (spot != null && !seen.contains(spot)) {
+                seen.add(spot);
+            }
+            return spot == null || random.nextInt(5) == 0 ? seen.get(random.nextInt(seen.size())) : spot;
+        }
+
+        private void stopLoop() {
+            Op op = history.invoke(Op.Kind.STOP_LOOP, thread, null, null);
+            try {
+                floor.getEventLoop().stop();
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+        }
+
+        private void startLoop() {
+            settle();
+            Op op = history.invoke(Op.Kind.START_LOOP, thread, null, null);
+            try {
+                variant.start(floor);
+            } catch (Throwable e) {
+                op.failure = e;
+            }
+            history.respond(op);
+        }
+
+        /**
+         * Cancel drains still waiting for a vehicle to leave and wait for every
+         * removal and retype to finish one way or the other
+         */
+        private void settle() {
+            List<ParkingSpot> unfinished = new ArrayList<>();
+            draining.forEach((spot, settled) -> {
+                if (!settled.isDone()) {
+                    unfinished.add(spot);
+                }
+            });
+            if (!unfinished.isEmpty() && floor.getEventLoop() != null) {
+                // Drains are cancelled, and retypes put their new spot in, only in locked mode
+                stopLoop();
+            }
+            for (ParkingSpot spot : unfinished) {
+                Op op = history.invoke(Op.Kind.ENABLE, thread, null, null);
+                op.spot = spot;
+                try {
+                    floor.enableSpot(spot);
+                } catch (IllegalArgumentException e) {
+                    op.refusal = e; // Drained and left just now
+                } catch (Throwable e) {
+                    op.failure = e;
+                }
+                history.respond(op);
+            }
+            for (CompletableFuture<Void> settled : draining.values()) {
+                settled.join();
+            }
+            draining.clear();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package helpers;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Epoch-millis clock refreshed by a background ticker, so a read is a single
+ * volatile load. The value never goes backwards: if the system clock is stepped
+ * back, the cached time holds until the system clock catches up, so durations
+ * measured with it are never negative.
+ *
+ * The default resolution of 10 ms is plenty for hour-based billing and
+ * minute-scale windows; pass a finer resolution only where it is needed, as
+ * each ticker wakes up once per tick.
+ */
+public final class CachedTimeSource implements TimeSource {
+    private static final long DEFAULT_RESOLUTION_MILLIS = 10;
+
+    private static volatile CachedTimeSource shared;
+
+    private final long resolutionNanos;
+    private final Thread ticker;
+    private volatile long now;
+    private volatile boolean running = true;
+
+    /**
+     * Clock refreshed every 10 ms
+     */
+    public CachedTimeSource() {
+        this(DEFAULT_RESOLUTION_MILLIS);
+    }
+
+    /**
+     * @param resolutionMillis how often the ticker refreshes the cached time
+     */
+    public CachedTimeSource(long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Clock resolution must be positive");
+        }
+        this.resolutionNanos = resolutionMillis * 1_000_000;
+        this.now = System.currentTimeMillis();
+        this.ticker = new Thread(this::tick, "cached-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * The process-wide instance behind {@link TimeSource#defaultSource()}, started on first use
+     */
+    public static CachedTimeSource shared() {
+        CachedTimeSource clock = shared;
+        if (clock == null) {
+            synchronized (CachedTimeSource.class) {
+                clock = shared;
+                if (clock == null) {
+                    clock = new CachedTimeSource();
+                    shared = clock;
+                }
+            }
+        }
+        return clock;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Stop the ticker; the clock then stays at its last value
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tick() {
+        while (running) {
+            long system = System.currentTimeMillis();
+            if (system > now) {
+                now = system;
+            }
+            LockSupport.parkNanos(this, resolutionNanos);
+        }
+    }
+}
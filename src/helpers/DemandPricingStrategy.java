@@ -0,0 +1,71 @@
+package helpers;
+
+import enums.VehicleType;
+import models.ParkingTicket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Demand-based pricing on top of a base duration strategy.
+ * Applies a per-vehicle-type factor, a peak-hour factor for vehicles that
+ * entered during the peak window, and the surge multiplier supplied by the
+ * caller (normally from {@link service.OccupancyTracker}).
+ */
+public class DemandPricingStrategy implements PricingStrategy {
+    private final PricingStrategy baseStrategy;
+    // Read on every payment while factors may still be changed, so a concurrent map
+    private final Map<VehicleType, Double> vehicleFactors = new ConcurrentHashMap<>();
+    private final int peakStartHour;
+    private final int peakEndHour;
+    private final double peakFactor;
+
+    public DemandPricingStrategy(PricingStrategy baseStrategy) {
+        this(baseStrategy, 8, 10, 1.25);
+    }
+
+    /**
+     * @param peakStartHour first hour of day (inclusive) that counts as peak
+     * @param peakEndHour   last hour of day (exclusive) that counts as peak
+     * @param peakFactor    factor for tickets whose entry falls in the peak window
+     */
+    public DemandPricingStrategy(PricingStrategy baseStrategy, int peakStartHour, int peakEndHour, double peakFactor) {
+        this.baseStrategy = baseStrategy;
+        this.peakStartHour = peakStartHour;
+        this.peakEndHour = peakEndHour;
+        this.peakFactor = peakFactor;
+        vehicleFactors.put(VehicleType.MOTORCYCLE, 0.5);
+        vehicleFactors.put(VehicleType.CAR, 1.0);
+        vehicleFactors.put(VehicleType.ELECTRIC, 1.0);
+        vehicleFactors.put(VehicleType.VAN, 1.5);
+        vehicleFactors.put(VehicleType.TRUCK, 2.0);
+    }
+
+    public DemandPricingStrategy withVehicleFactor(VehicleType type, double factor) {
+        vehicleFactors.put(type, factor);
+        return this;
+    }
+
+    @Override
+    public double calculate(long hours) {
+        return baseStrategy.calculate(hours);
+    }
+
+    @Override
+    public double calculate(ParkingTicket ticket, double surgeMultiplier) {
+        double amount = baseStrategy.calculate(ticket.getParkedHours());
+        amount *= vehicleFactors.getOrDefault(ticket.getVehicle().getType(), 1.0);
+        if (isPeak(ticket.getEntryTime().getHour())) {
+            amount *= peakFactor;
+        }
+        return amount * surgeMultiplier;
+    }
+
+    private boolean isPeak(int hour) {
+        if (peakStartHour <= peakEndHour) {
+            return hour >= peakStartHour && hour < peakEndHour;
+        }
+        // Window wraps past midnight
+        return hour >= peakStartHour || hour < peakEndHour;
+    }
+}
@@ -0,0 +1,35 @@
+package helpers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when told to, for tests and fast-forward simulation
+ */
+public class ManualTimeSource implements TimeSource {
+    private final AtomicLong now;
+
+    public ManualTimeSource(long startEpochMillis) {
+        this.now = new AtomicLong(startEpochMillis);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now.get();
+    }
+
+    public void setTime(long epochMillis) {
+        now.set(epochMillis);
+    }
+
+    public long advance(Duration duration) {
+        return advanceMillis(duration.toMillis());
+    }
+
+    public long advanceMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time cannot go backwards");
+        }
+        return now.addAndGet(millis);
+    }
+}
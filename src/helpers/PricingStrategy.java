@@ -1,5 +1,16 @@
 package helpers;
 
+import models.ParkingTicket;
+
 public interface PricingStrategy {
     double calculate(long hours);
+
+    /**
+     * Price a ticket with full context (vehicle, spot, entry time) and the
+     * current demand surge. Strategies that only care about duration can rely
+     * on this default.
+     */
+    default double calculate(ParkingTicket ticket, double surgeMultiplier) {
+        return calculate(ticket.getParkedHours()) * surgeMultiplier;
+    }
 }
@@ -0,0 +1,45 @@
+package helpers;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ticket ids are random 64-bit values written as 16 lower-case hex digits,
+ * so they fit a fixed-width field in binary receipts
+ */
+public final class TicketIds {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TicketIds() {
+    }
+
+    public static String next() {
+        return format(ThreadLocalRandom.current().nextLong());
+    }
+
+    public static String format(long id) {
+        char[] digits = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            digits[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Parse an id produced by {@link #format}, without allocating
+     */
+    public static long parse(CharSequence id) {
+        if (id.length() != 16) {
+            throw new IllegalArgumentException("Ticket id must be 16 hex digits: " + id);
+        }
+        long value = 0;
+        for (int i = 0; i < 16; i++) {
+            int digit = Character.digit(id.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Ticket id must be 16 hex digits: " + id);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,26 @@
+package helpers;
+
+/**
+ * Where tickets, payments and timers read the time from. Inject a
+ * {@link ManualTimeSource} to control time in tests and simulations.
+ */
+public interface TimeSource {
+    /**
+     * Current time in epoch milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Shared cached clock used when nothing else is injected
+     */
+    static TimeSource defaultSource() {
+        return CachedTimeSource.shared();
+    }
+
+    /**
+     * Reads the system clock on every call
+     */
+    static TimeSource system() {
+        return System::currentTimeMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays camera reads recorded one per line in a text file
+ */
+public class FilePlateSource implements PlateSource, AutoCloseable {
+    private final BufferedReader reader;
+
+    public FilePlateSource(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String nextLine() throws IOException {
+        return reader.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
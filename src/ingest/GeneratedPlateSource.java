@@ -0,0 +1,97 @@
+package ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Seeded synthetic camera feed paced to a target read rate.
+ *
+ * Each vehicle movement produces a burst of one to four reads of the same
+ * plate a few hundred milliseconds apart, mimicking a camera re-reading a car
+ * at the barrier. Exits are drawn from plates that previously entered; the
+ * share of exits rises with the number of vehicles inside.
+ */
+public class GeneratedPlateSource implements PlateSource {
+    private static final String[] TYPE_HINTS = {null, null, null, "CAR", "ELECTRIC", "MOTORCYCLE", "VAN", "TRUCK"};
+
+    private final Random random;
+    private final int readsPerSecond;
+    private final long totalReads;
+    private final List<String> entryGates;
+    private final List<String> exitGates;
+    private final int targetOccupancy;
+    private final List<String> inside = new ArrayList<>();
+    private final List<String> pending = new ArrayList<>();
+    private long emitted;
+    private long nextPlate;
+    private long startNanos;
+    private long clock = System.currentTimeMillis();
+
+    /**
+     * @param targetOccupancy number of vehicles the feed tries to keep inside the lot
+     */
+    public GeneratedPlateSource(long seed, int readsPerSecond, long totalReads,
+                                List<String> entryGates, List<String> exitGates, int targetOccupancy) {
+        this.random = new Random(seed);
+        this.readsPerSecond = readsPerSecond;
+        this.totalReads = totalReads;
+        this.entryGates = entryGates;
+        this.exitGates = exitGates;
+        this.targetOccupancy = targetOccupancy;
+    }
+
+    @Override
+    public String nextLine() {
+        if (emitted >= totalReads) {
+            return null;
+        }
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+        pace();
+        if (pending.isEmpty()) {
+            nextMovement();
+        }
+        emitted++;
+        return pending.remove(pending.size() - 1);
+    }
+
+    private void nextMovement() {
+        // Exits balance entries once the target occupancy is reached
+        double exitProbability = Math.min(0.95, 0.5 * inside.size() / Math.max(1, targetOccupancy));
+        boolean entry = inside.isEmpty() || random.nextDouble() >= exitProbability;
+        String plate;
+        String gate;
+        if (entry) {
+            plate = "KA" + (10 + random.nextInt(90)) + "GEN" + nextPlate++;
+            gate = entryGates.get(random.nextInt(entryGates.size()));
+            inside.add(plate);
+        } else {
+            int index = random.nextInt(inside.size());
+            plate = inside.get(index);
+            inside.set(index, inside.get(inside.size() - 1));
+            inside.remove(inside.size() - 1);
+            gate = exitGates.get(random.nextInt(exitGates.size()));
+        }
+        String hint = TYPE_HINTS[Math.floorMod(plate.hashCode(), TYPE_HINTS.length)];
+        int reads = 1 + random.nextInt(4);
+        clock += 1 + random.nextInt(20);
+        for (int i = reads - 1; i >= 0; i--) {
+            pending.add((clock + i * 150L) + "," + gate + "," + (entry ? "ENTRY" : "EXIT") + ","
+                    + plate + "," + (hint == null ? "" : hint));
+        }
+    }
+
+    /**
+     * Block until the wall clock allows the next read at the target rate
+     */
+    private void pace() {
+        long due = startNanos + emitted * 1_000_000_000L / readsPerSecond;
+        long wait = due - System.nanoTime();
+        if (wait > 100_000) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
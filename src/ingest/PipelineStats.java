@@ -0,0 +1,69 @@
+package ingest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the plate ingest pipeline, safe to read while it runs
+ */
+public class PipelineStats {
+    final LongAdder linesRead = new LongAdder();
+    final LongAdder parseErrors = new LongAdder();
+    final LongAdder duplicates = new LongAdder();
+    final LongAdder ticketsIssued = new LongAdder();
+    final LongAdder lotFull = new LongAdder();
+    final LongAdder alreadyParked = new LongAdder();
+    final LongAdder exits = new LongAdder();
+    final LongAdder unknownExit = new LongAdder();
+    final LongAdder unknownGate = new LongAdder();
+    final LongAdder stageErrors = new LongAdder();
+    final LongAdder batches = new LongAdder();
+    final LongAdder batchedItems = new LongAdder();
+
+    public long getLinesRead() {
+        return linesRead.sum();
+    }
+
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getTicketsIssued() {
+        return ticketsIssued.sum();
+    }
+
+    public long getLotFull() {
+        return lotFull.sum();
+    }
+
+    public long getExits() {
+        return exits.sum();
+    }
+
+    public long getUnknownExits() {
+        return unknownExit.sum();
+    }
+
+    public long getStageErrors() {
+        return stageErrors.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : batchedItems.sum() / (double) count;
+    }
+
+    public void print() {
+        System.out.println("---- Plate Ingest Stats ----");
+        System.out.println("Lines read: " + getLinesRead() + ", parse errors: " + getParseErrors()
+                + ", duplicates dropped: " + getDuplicates());
+        System.out.println("Tickets issued: " + getTicketsIssued() + ", lot full: " + getLotFull()
+                + ", already parked: " + alreadyParked.sum());
+        System.out.println("Exits: " + getExits() + ", unknown exits: " + getUnknownExits()
+                + ", unknown gates: " + unknownGate.sum() + ", stage errors: " + getStageErrors());
+        System.out.printf("Average batch size: %.1f%n", getAverageBatchSize());
+    }
+}
@@ -0,0 +1,81 @@
+package ingest;
+
+import enums.PaymentMode;
+import models.EntryPanel;
+import models.ExitPanel;
+import models.InfoPortal;
+import models.ParkingTicket;
+import models.Vehicle;
+import service.VehicleRegistry;
+
+import java.util.Map;
+
+/**
+ * Final pipeline stage: turns a classified read into a ticket at an entry
+ * gate, or finds, settles and closes the ticket at an exit gate
+ */
+public class PlateAllocator {
+    private final Map<String, EntryPanel> entryPanels;
+    private final Map<String, ExitPanel> exitPanels;
+    private final InfoPortal exitPayment;
+    private final VehicleRegistry registry;
+    private final PipelineStats stats;
+
+    /**
+     * @param exitPayment used to settle unpaid tickets at the exit barrier (pay-on-exit)
+     * @param registry    active tickets by plate; it must be a listener on the lot, which
+     *                    keeps it current, so the allocator only reads it
+     */
+    public PlateAllocator(Map<String, EntryPanel> entryPanels, Map<String, ExitPanel> exitPanels,
+                          InfoPortal exitPayment, VehicleRegistry registry, PipelineStats stats) {
+        this.entryPanels = entryPanels;
+        this.exitPanels = exitPanels;
+        this.exitPayment = exitPayment;
+        this.registry = registry;
+        this.stats = stats;
+    }
+
+    public void allocate(PlateRead read) {
+        if (read.isEntry()) {
+            enter(read);
+        } else {
+            leave(read);
+        }
+    }
+
+    private void enter(PlateRead read) {
+        EntryPanel gate = entryPanels.get(read.getGateId());
+        if (gate == null) {
+            stats.unknownGate.increment();
+            return;
+        }
+        if (registry.lookup(read.getPlate()) != null) {
+            stats.alreadyParked.increment();
+            return;
+        }
+        ParkingTicket ticket = gate.issueTicket(new Vehicle(read.getPlate(), read.getVehicleType()));
+        if (ticket == null) {
+            stats.lotFull.increment();
+            return;
+        }
+        stats.ticketsIssued.increment();
+    }
+
+    private void leave(PlateRead read) {
+        ExitPanel gate = exitPanels.get(read.getGateId());
+        if (gate == null) {
+            stats.unknownGate.increment();
+            return;
+        }
+        ParkingTicket ticket = registry.lookup(read.getPlate());
+        if (ticket == null) {
+            stats.unknownExit.increment();
+            return;
+        }
+        if (!ticket.isPaid()) {
+            exitPayment.pay(ticket, PaymentMode.CARD);
+        }
+        gate.exit(ticket);
+        stats.exits.increment();
+    }
+}
@@ -0,0 +1,165 @@
+package ingest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Staged ingest pipeline for licence-plate camera reads:
+ * <pre>
+ *   source -> [raw] -> parse -> [parsed] -> dedupe -> [unique] -> classify -> [classified] -> allocate
+ * </pre>
+ * Every arrow in brackets is a bounded single-producer / single-consumer
+ * {@link RingBuffer} and every stage runs on its own thread, draining its input
+ * in batches and publishing its output a batch at a time. A full ring parks
+ * the upstream stage, so backpressure propagates all the way to the source.
+ */
+public class PlatePipeline {
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final PlateReadParser parser = new PlateReadParser();
+    private final ReadDeduplicator deduplicator;
+    private final VehicleClassifier classifier;
+    private final PlateAllocator allocator;
+    private final PipelineStats stats;
+    private final int ringCapacity;
+    private final int batchSize;
+
+    public PlatePipeline(ReadDeduplicator deduplicator, VehicleClassifier classifier, PlateAllocator allocator,
+                         PipelineStats stats, int ringCapacity, int batchSize) {
+        this.deduplicator = deduplicator;
+        this.classifier = classifier;
+        this.allocator = allocator;
+        this.stats = stats;
+        this.ringCapacity = ringCapacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Pump every line from the source through the pipeline and wait until the
+     * last read has been allocated
+     */
+    public PipelineStats run(PlateSource source) throws IOException, InterruptedException {
+        RingBuffer<String> raw = new RingBuffer<>(ringCapacity);
+        RingBuffer<PlateRead> parsed = new RingBuffer<>(ringCapacity);
+        RingBuffer<PlateRead> unique = new RingBuffer<>(ringCapacity);
+        RingBuffer<PlateRead> classified = new RingBuffer<>(ringCapacity);
+
+        Stage<PlateRead, Void> allocate = new Stage<>("plate-allocate", classified, null, read -> {
+            allocator.allocate(read);
+            return null;
+        });
+        Stage<PlateRead, PlateRead> classify = new Stage<>("plate-classify", unique, classified, read -> {
+            read.setVehicleType(classifier.classify(read));
+            return read;
+        });
+        Stage<PlateRead, PlateRead> dedupe = new Stage<>("plate-dedupe", parsed, unique, read -> {
+            if (deduplicator.accept(read)) {
+                return read;
+            }
+            stats.duplicates.increment();
+            return null;
+        });
+        Stage<String, PlateRead> parse = new Stage<>("plate-parse", raw, parsed, line -> {
+            PlateRead read = parser.parse(line);
+            if (read == null) {
+                stats.parseErrors.increment();
+            }
+            return read;
+        });
+        parse.downstream = dedupe;
+        dedupe.downstream = classify;
+        classify.downstream = allocate;
+
+        List<Stage<?, ?>> stages = List.of(parse, dedupe, classify, allocate);
+        for (Stage<?, ?> stage : stages) {
+            stage.thread.start();
+        }
+        try {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = source.nextLine()) != null) {
+                stats.linesRead.increment();
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    raw.putAll(batch);
+                    batch.clear();
+                }
+            }
+            raw.putAll(batch);
+        } finally {
+            parse.upstreamDone = true;
+            for (Stage<?, ?> stage : stages) {
+                stage.thread.join();
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * One pipeline stage: a thread applying {@code step} to each input.
+     * A null result drops the element.
+     */
+    private final class Stage<I, O> implements Runnable {
+        final Thread thread;
+        final RingBuffer<I> input;
+        final RingBuffer<O> output;
+        final Function<I, O> step;
+        Stage<?, ?> downstream;
+        volatile boolean upstreamDone;
+
+        Stage(String name, RingBuffer<I> input, RingBuffer<O> output, Function<I, O> step) {
+            this.input = input;
+            this.output = output;
+            this.step = step;
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<I> in = new ArrayList<>(batchSize);
+            List<O> out = new ArrayList<>(batchSize);
+            try {
+                while (true) {
+                    // Read the flag before draining so no element published before it is missed
+                    boolean done = upstreamDone;
+                    int drained = input.drainTo(in, batchSize);
+                    if (drained == 0) {
+                        if (done) {
+                            break;
+                        }
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                        continue;
+                    }
+                    stats.batches.increment();
+                    stats.batchedItems.add(drained);
+                    for (I element : in) {
+                        O result;
+                        try {
+                            result = step.apply(element);
+                        } catch (RuntimeException e) {
+                            // One bad read must not stall the whole pipeline
+                            stats.stageErrors.increment();
+                            continue;
+                        }
+                        if (result != null && output != null) {
+                            out.add(result);
+                        }
+                    }
+                    in.clear();
+                    if (!out.isEmpty()) {
+                        output.putAll(out);
+                        out.clear();
+                    }
+                }
+            } finally {
+                if (downstream != null) {
+                    downstream.upstreamDone = true;
+                }
+            }
+        }
+    }
+}
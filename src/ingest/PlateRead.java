@@ -0,0 +1,54 @@
+package ingest;
+
+import enums.VehicleType;
+
+/**
+ * A licence-plate camera read, enriched as it moves through the pipeline
+ */
+public class PlateRead {
+    private final long timestamp;
+    private final String gateId;
+    private final boolean entry;
+    private final String plate;
+    private final String typeHint;
+    private VehicleType vehicleType;
+
+    public PlateRead(long timestamp, String gateId, boolean entry, String plate, String typeHint) {
+        this.timestamp = timestamp;
+        this.gateId = gateId;
+        this.entry = entry;
+        this.plate = plate;
+        this.typeHint = typeHint;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public boolean isEntry() {
+        return entry;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    /**
+     * Vehicle type reported by the camera, or null if it did not classify the vehicle
+     */
+    public String getTypeHint() {
+        return typeHint;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    void setVehicleType(VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+}
@@ -0,0 +1,55 @@
+package ingest;
+
+/**
+ * Parses raw camera lines of the form
+ * {@code epochMillis,gateId,ENTRY|EXIT,plate[,typeHint]}.
+ * Plates are normalised to upper case with spaces and dashes removed.
+ */
+public class PlateReadParser {
+
+    /**
+     * @return the parsed read, or null if the line is malformed
+     */
+    public PlateRead parse(String line) {
+        if (line == null) {
+            return null;
+        }
+        String[] fields = line.split(",", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            return null;
+        }
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(fields[0].trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String gateId = fields[1].trim();
+        String direction = fields[2].trim();
+        boolean entry;
+        if (direction.equalsIgnoreCase("ENTRY")) {
+            entry = true;
+        } else if (direction.equalsIgnoreCase("EXIT")) {
+            entry = false;
+        } else {
+            return null;
+        }
+        String plate = normalise(fields[3]);
+        if (gateId.isEmpty() || plate.isEmpty()) {
+            return null;
+        }
+        String hint = fields.length == 5 && !fields[4].isBlank() ? fields[4].trim() : null;
+        return new PlateRead(timestamp, gateId, entry, plate, hint);
+    }
+
+    static String normalise(String plate) {
+        StringBuilder normalised = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalised.append(Character.toUpperCase(c));
+            }
+        }
+        return normalised.toString();
+    }
+}
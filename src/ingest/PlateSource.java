@@ -0,0 +1,13 @@
+package ingest;
+
+import java.io.IOException;
+
+/**
+ * Supplier of raw camera lines for the ingest pipeline
+ */
+public interface PlateSource {
+    /**
+     * @return the next line, or null once the source is exhausted
+     */
+    String nextLine() throws IOException;
+}
@@ -0,0 +1,46 @@
+package ingest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drops repeated reads of the same plate in the same direction within a time
+ * window, as cameras typically report a vehicle several times while it sits
+ * at the barrier. Owned by a single pipeline stage, so it needs no locking.
+ *
+ * Entries are kept in last-seen order; expiry pops from the head, so each
+ * read costs O(1) amortized and memory is bounded by {@code maxTracked}.
+ */
+public class ReadDeduplicator {
+    private final long windowMillis;
+    private final int maxTracked;
+    private final LinkedHashMap<String, Long> lastSeen = new LinkedHashMap<>();
+
+    public ReadDeduplicator(long windowMillis, int maxTracked) {
+        this.windowMillis = windowMillis;
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * @return true if the read is the first for its plate and direction in the window
+     */
+    public boolean accept(PlateRead read) {
+        expire(read.getTimestamp());
+        String key = read.isEntry() ? read.getPlate() : read.getPlate() + '>';
+        Long previous = lastSeen.remove(key);
+        lastSeen.put(key, read.getTimestamp());
+        return previous == null || read.getTimestamp() - previous > windowMillis;
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<String, Long>> oldest = lastSeen.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (now - entry.getValue() <= windowMillis && lastSeen.size() <= maxTracked) {
+                break;
+            }
+            oldest.remove();
+        }
+    }
+}
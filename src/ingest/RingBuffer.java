@@ -0,0 +1,150 @@
+package ingest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer / single-consumer ring buffer.
+ *
+ * The producer only writes {@code tail} and the consumer only writes
+ * {@code head}, so neither side needs a lock or a CAS: each publishes its
+ * index with an ordered (lazySet) store after touching the slots. Each side
+ * caches the other's index and re-reads it only when the cached value says
+ * the ring is full / empty.
+ */
+public class RingBuffer<E> {
+    private static final long FULL_BACKOFF_NANOS = 20_000;
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong producerStalls = new AtomicLong();
+    private long cachedHead;
+    private long cachedTail;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side: add an element, returning false if the ring is full
+     */
+    public boolean offer(E element) {
+        long t = tail.get();
+        if (t - cachedHead >= slots.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= slots.length) {
+                return false;
+            }
+        }
+        slots[(int) (t & mask)] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Producer side: add an element, parking while the ring is full.
+     * This is the backpressure point between stages.
+     */
+    public void put(E element) {
+        if (offer(element)) {
+            return;
+        }
+        producerStalls.incrementAndGet();
+        while (!offer(element)) {
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while waiting for ring space");
+            }
+        }
+    }
+
+    /**
+     * Producer side: publish a whole batch, filling as much of the ring as is
+     * free and advancing the tail once per fill. Parks while the ring is full.
+     */
+    public void putAll(List<? extends E> batch) {
+        int written = 0;
+        boolean stalled = false;
+        while (written < batch.size()) {
+            long t = tail.get();
+            long free = slots.length - (t - cachedHead);
+            if (free <= 0) {
+                cachedHead = head.get();
+                free = slots.length - (t - cachedHead);
+                if (free <= 0) {
+                    if (!stalled) {
+                        producerStalls.incrementAndGet();
+                        stalled = true;
+                    }
+                    LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Interrupted while waiting for ring space");
+                    }
+                    continue;
+                }
+            }
+            int count = (int) Math.min(free, batch.size() - written);
+            for (int i = 0; i < count; i++) {
+                slots[(int) ((t + i) & mask)] = batch.get(written + i);
+            }
+            written += count;
+            tail.lazySet(t + count);
+        }
+    }
+
+    /**
+     * Consumer side: move up to {@code max} elements into {@code batch}
+     *
+     * @return number of elements drained
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super E> batch, int max) {
+        long h = head.get();
+        long available = cachedTail - h;
+        if (available <= 0) {
+            cachedTail = tail.get();
+            available = cachedTail - h;
+            if (available <= 0) {
+                return 0;
+            }
+        }
+        int count = (int) Math.min(available, max);
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((h + i) & mask);
+            batch.add((E) slots[index]);
+            slots[index] = null;
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Number of times the producer found the ring full and had to wait
+     */
+    public long getProducerStalls() {
+        return producerStalls.get();
+    }
+}
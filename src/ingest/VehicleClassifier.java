@@ -0,0 +1,48 @@
+package ingest;
+
+import enums.VehicleType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decides the {@link VehicleType} of a read: the camera's own hint wins,
+ * otherwise the longest configured plate prefix, otherwise the default type
+ */
+public class VehicleClassifier {
+    private final Map<String, VehicleType> prefixes = new LinkedHashMap<>();
+    private final VehicleType defaultType;
+
+    public VehicleClassifier() {
+        this(VehicleType.CAR);
+    }
+
+    public VehicleClassifier(VehicleType defaultType) {
+        this.defaultType = defaultType;
+    }
+
+    public VehicleClassifier withPrefix(String prefix, VehicleType type) {
+        prefixes.put(PlateReadParser.normalise(prefix), type);
+        return this;
+    }
+
+    public VehicleType classify(PlateRead read) {
+        if (read.getTypeHint() != null) {
+            try {
+                return VehicleType.valueOf(read.getTypeHint().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Unknown hint: fall through to plate-based classification
+            }
+        }
+        VehicleType best = defaultType;
+        int bestLength = 0;
+        for (Map.Entry<String, VehicleType> entry : prefixes.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > bestLength && read.getPlate().startsWith(prefix)) {
+                best = entry.getValue();
+                bestLength = prefix.length();
+            }
+        }
+        return best;
+    }
+}
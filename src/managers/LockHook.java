@@ -0,0 +1,19 @@
+package managers;
+
+/**
+ * Callback at a manager's lock boundaries. Stress tests use it to inject delays
+ * that widen race windows; production code leaves it unset.
+ */
+public interface LockHook {
+    /**
+     * Called just before the manager tries to take its lock
+     */
+    default void beforeLock(VehicleManager manager, String operation) {
+    }
+
+    /**
+     * Called with the lock held, before the operation changes any state
+     */
+    default void insideLock(VehicleManager manager, String operation) {
+    }
+}
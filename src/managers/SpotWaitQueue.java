@@ -0,0 +1,230 @@
+package managers;
+
+import enums.VehicleType;
+import helpers.TimeSource;
+import models.ParkingSpot;
+import models.ParkingTicket;
+import models.Vehicle;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lot-wide FIFO queues of vehicles waiting for a spot, one queue per vehicle type.
+ *
+ * When a manager frees a spot it asks {@link #claimFor} for the longest-waiting
+ * vehicle that fits and hands the spot over directly, without the spot ever
+ * becoming visible as free. A waiter that times out and a manager that claims
+ * it race on a single CAS, so each waiter ends up either with a ticket or with
+ * {@code null}, never both.
+ *
+ * Timeouts are measured on the queue's {@link TimeSource}. A timer expires a
+ * waiter once that clock passes its deadline, and managers never hand a spot to
+ * an overdue waiter, even before its timer has caught up with a fast-forwarded clock.
+ */
+public class SpotWaitQueue {
+    private final Map<VehicleType, ConcurrentLinkedQueue<Waiter>> queues = new EnumMap<>(VehicleType.class);
+    private final Map<VehicleType, AtomicInteger> waiting = new EnumMap<>(VehicleType.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile TimeSource timeSource = TimeSource.defaultSource();
+
+    public SpotWaitQueue() {
+        for (VehicleType type : VehicleType.values()) {
+            queues.put(type, new ConcurrentLinkedQueue<>());
+            waiting.put(type, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Join the queue for the vehicle's type. The waiter's future completes with a
+     * ticket when a spot is handed over, or with null once {@code timeoutMillis} passes.
+     */
+    public Waiter enqueue(Vehicle vehicle, String ticketId, long timeoutMillis) {
+        TimeSource clock = timeSource;
+        Waiter waiter = new Waiter(vehicle, ticketId, sequence.getAndIncrement(),
+                clock, clock.currentTimeMillis() + timeoutMillis);
+        waiting.get(vehicle.getType()).incrementAndGet();
+        queues.get(vehicle.getType()).add(waiter);
+        scheduleExpiry(waiter, timeoutMillis);
+        return waiter;
+    }
+
+    /**
+     * Clock the waiters' timeouts are measured on; applies to vehicles queued from now on
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    private void scheduleExpiry(Waiter waiter, long delayMillis) {
+        Executor timer = CompletableFuture.delayedExecutor(Math.max(1, delayMillis), TimeUnit.MILLISECONDS);
+        timer.execute(() -> {
+            long remaining = waiter.remainingMillis();
+            if (remaining > 0 && waiter.isWaiting()) {
+                // The injected clock runs slower than the timer; check again when it may be due
+                scheduleExpiry(waiter, remaining);
+            } else {
+                waiter.cancel();
+            }
+        });
+    }
+
+    /**
+     * Claim the longest-waiting vehicle that fits the spot, or null if nobody does.
+     * Called by the spot's manager under its lock, or by the floor's event loop.
+     * The claimed waiter is not told anything: the caller {@link Waiter#assign assigns}
+     * its ticket and {@link Waiter#deliver delivers} it once the park has been announced.
+     */
+    public Waiter claimFor(ParkingSpot spot) {
+        while (true) {
+            Waiter oldest = null;
+            for (VehicleType type : VehicleType.values()) {
+                if (waiting.get(type).get() == 0 || !spot.canFit(type)) {
+                    continue;
+                }
+                Waiter head = firstDue(queues.get(type));
+                if (head != null && (oldest == null || head.sequence < oldest.sequence)) {
+                    oldest = head;
+                }
+            }
+            if (oldest == null) {
+                return null;
+            }
+            if (oldest.finish(Waiter.CLAIMED)) {
+                queues.get(oldest.vehicle.getType()).remove(oldest);
+                waiting.get(oldest.vehicle.getType()).decrementAndGet();
+                return oldest;
+            }
+            // Timed out or cancelled between peek and claim; look again
+        }
+    }
+
+    /**
+     * Whether anyone at all is waiting, read without locking
+     */
+    public boolean hasWaiters() {
+        for (AtomicInteger count : waiting.values()) {
+            if (count.get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of vehicles currently waiting for a type, read without locking
+     */
+    public int getWaitingCount(VehicleType type) {
+        return waiting.get(type).get();
+    }
+
+    /**
+     * Oldest waiter still within its timeout. Finished waiters at the head are
+     * unlinked; overdue ones are passed over and left for their timer to expire,
+     * since this runs under a manager's lock and must not complete futures.
+     */
+    private static Waiter firstDue(ConcurrentLinkedQueue<Waiter> queue) {
+        Waiter head;
+        while ((head = queue.peek()) != null && !head.isWaiting()) {
+            queue.remove(head);
+        }
+        if (head == null || head.remainingMillis() > 0) {
+            return head;
+        }
+        for (Waiter waiter : queue) {
+            if (waiter.isWaiting() && waiter.remainingMillis() > 0) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A vehicle waiting for a spot
+     */
+    public final class Waiter {
+        static final int WAITING = 0;
+        static final int CLAIMED = 1;
+        static final int EXPIRED = 2;
+
+        private final Vehicle vehicle;
+        private final String ticketId;
+        private final long sequence;
+        private final TimeSource clock;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final CompletableFuture<ParkingTicket> future = new CompletableFuture<>();
+        private volatile ParkingTicket ticket;
+
+        private Waiter(Vehicle vehicle, String ticketId, long sequence, TimeSource clock, long deadline) {
+            this.vehicle = vehicle;
+            this.ticketId = ticketId;
+            this.sequence = sequence;
+            this.clock = clock;
+            this.deadline = deadline;
+        }
+
+        public CompletableFuture<ParkingTicket> getFuture() {
+            return future;
+        }
+
+        /**
+         * Leave the queue early; returns false if a spot was already handed over
+         */
+        public boolean cancel() {
+            if (finish(EXPIRED)) {
+                waiting.get(vehicle.getType()).decrementAndGet();
+                future.complete(null);
+                return true;
+            }
+            return false;
+        }
+
+        public Vehicle getVehicle() {
+            return vehicle;
+        }
+
+        public String getTicketId() {
+            return ticketId;
+        }
+
+        /**
+         * Ticket issued to this waiter once a spot has been claimed for it, or null
+         */
+        public ParkingTicket getTicket() {
+            return ticket;
+        }
+
+        /**
+         * Record the ticket issued to a claimed waiter; the waiter only sees it on {@link #deliver()}
+         */
+        public void assign(ParkingTicket ticket) {
+            this.ticket = ticket;
+        }
+
+        /**
+         * Complete the waiter's future with its assigned ticket
+         */
+        public void deliver() {
+            future.complete(ticket);
+        }
+
+        boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+
+        long remainingMillis() {
+            return deadline - clock.currentTimeMillis();
+        }
+
+        private boolean finish(int outcome) {
+            return state.compareAndSet(WAITING, outcome);
+        }
+    }
+}
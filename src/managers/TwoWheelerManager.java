@@ -6,29 +6,20 @@ import models.ParkingSpot;
 import models.ParkingTicket;
 import models.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Manager for two-wheeler vehicles (motorcycles)
  * Maintains its own list of motorcycle spots with independent locking
  */
 public class TwoWheelerManager extends VehicleManager {
-    private final List<ParkingSpot> spots = new ArrayList<>();
-
     public TwoWheelerManager() {
         super(VehicleType.MOTORCYCLE);
     }
 
-    public void addSpot(ParkingSpot spot) {
-        synchronized (lock) {
-            spots.add(spot);
-        }
-    }
-
     @Override
     public ParkingTicket parkVehicle(Vehicle vehicle, String ticketId) {
+        beforeLock("park");
         synchronized (lock) {
+            insideLock("park");
             if (vehicle.getType() != VehicleType.MOTORCYCLE) {
                 throw new IllegalArgumentException("This manager only handles motorcycles");
             }
@@ -38,35 +29,8 @@ public class TwoWheelerManager extends VehicleManager {
                 return null; // No available spot
             }
 
-            availableSpot.occupy();
-            return new ParkingTicket(ticketId, vehicle, availableSpot);
-        }
-    }
-
-    @Override
-    public void releaseVehicle(ParkingTicket ticket) {
-        synchronized (lock) {
-            ticket.getSpot().release();
-        }
-    }
-
-    @Override
-    public boolean hasAvailableSpot() {
-        synchronized (lock) {
-            return getFreeSpot() != null;
-        }
-    }
-
-    @Override
-    public int getAvailableSpotsCount() {
-        synchronized (lock) {
-            int count = 0;
-            for (ParkingSpot spot : spots) {
-                if (spot.isFree()) {
-                    count++;
-                }
-            }
-            return count;
+            occupy(availableSpot);
+            return newTicket(ticketId, vehicle, availableSpot);
         }
     }
 
@@ -1,17 +1,52 @@
 package managers;
 
+import enums.SpotType;
 import enums.VehicleType;
+import helpers.TimeSource;
 import models.ParkingSpot;
 import models.ParkingTicket;
 import models.Vehicle;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
  * Abstract base class for managing parking spaces for specific vehicle types.
  * Each vehicle type has its own manager with independent locking.
+ *
+ * Free spots are also counted per {@link SpotType} in atomic counters that are
+ * only written under the lock, so availability can be answered without it.
  */
 public abstract class VehicleManager {
+    // FITS[vehicleType][spotType]: whether that kind of spot can take that vehicle
+    private static final boolean[][] FITS = new boolean[VehicleType.values().length][SpotType.values().length];
+
+    static {
+        for (SpotType spotType : SpotType.values()) {
+            ParkingSpot probe;
+            try {
+                probe = ParkingSpot.of(spotType);
+            } catch (IllegalArgumentException e) {
+                continue; // No implementation for this spot type
+            }
+            for (VehicleType type : VehicleType.values()) {
+                FITS[type.ordinal()][spotType.ordinal()] = probe.canFit(type);
+            }
+        }
+    }
+
     private final VehicleType vehicleType;
     protected final Object lock = new Object();
+    protected final List<ParkingSpot> spots = new ArrayList<>();
+    private final AtomicIntegerArray freeBySpotType = new AtomicIntegerArray(SpotType.values().length);
+    private volatile SpotWaitQueue waitQueue;
+    private volatile TimeSource timeSource = TimeSource.defaultSource();
+    private volatile LockHook lockHook;
 
     public VehicleManager(VehicleType vehicleType) {
         this.vehicleType = vehicleType;
@@ -24,7 +59,24 @@ public abstract class VehicleManager {
     /**
      * Add a parking spot to this manager
      */
-    public abstract void addSpot(ParkingSpot spot);
+    public void addSpot(ParkingSpot spot) {
+        synchronized (lock) {
+            spots.add(spot);
+            track(spot);
+        }
+    }
+
+    /**
+     * Add many parking spots under a single lock acquisition
+     */
+    public void addSpots(Collection<ParkingSpot> newSpots) {
+        synchronized (lock) {
+            spots.addAll(newSpots);
+            for (ParkingSpot spot : newSpots) {
+                track(spot);
+            }
+        }
+    }
 
     /**
      * Attempt to park a vehicle
@@ -32,19 +84,107 @@ public abstract class VehicleManager {
     public abstract ParkingTicket parkVehicle(Vehicle vehicle, String ticketId);
 
     /**
-     * Release a parked vehicle
+     * Release a parked vehicle. If another vehicle is queued for a spot like
+     * this one, the spot goes straight to it and the waiter is returned with its
+     * new ticket assigned; otherwise the spot becomes free. Handed-over waiters
+     * are not delivered here: the caller announces the park first and then calls
+     * {@link SpotWaitQueue.Waiter#deliver()}, so the new driver cannot exit before
+     * listeners have seen it park.
+     * The ticket is marked exited under the same lock that frees the spot, so a
+     * concurrent second release of the ticket never sees it exited while the
+     * spot is still taken.
+     *
+     * @return the waiter the spot was handed over to, an empty list if the spot was
+     * freed, or null if the ticket had already been released
      */
-    public abstract void releaseVehicle(ParkingTicket ticket);
+    public List<SpotWaitQueue.Waiter> releaseVehicle(ParkingTicket ticket) {
+        SpotWaitQueue.Waiter waiter;
+        beforeLock("release");
+        synchronized (lock) {
+            insideLock("release");
+            if (!ticket.markExited()) {
+                return null;
+            }
+            ParkingSpot spot = ticket.getSpot();
+            waiter = spot.isDisabled() ? null : claimWaiter(spot);
+            if (waiter == null) {
+                spot.release();
+                if (spot.isFree()) {
+                    freeBySpotType.incrementAndGet(spot.getSpotType().ordinal());
+                }
+                return Collections.emptyList();
+            }
+            // Spot stays occupied: it changes hands without ever being free
+            waiter.assign(newTicket(waiter.getTicketId(), waiter.getVehicle(), spot));
+        }
+        return Collections.singletonList(waiter);
+    }
 
     /**
-     * Check if there are free spots for this vehicle type
+     * Hand free spots to queued vehicles, e.g. after spots were added or re-enabled.
+     * Returns the waiters served, each with its ticket assigned but not yet
+     * delivered; as with {@link #releaseVehicle}, the caller delivers them.
      */
-    public abstract boolean hasAvailableSpot();
+    public List<SpotWaitQueue.Waiter> serveWaiters() {
+        List<SpotWaitQueue.Waiter> served = new ArrayList<>();
+        SpotWaitQueue queue = waitQueue;
+        if (queue == null || !queue.hasWaiters() || !hasAvailableSpot()) {
+            return served;
+        }
+        synchronized (lock) {
+            for (ParkingSpot spot : spots) {
+                if (!spot.isFree()) {
+                    continue;
+                }
+                SpotWaitQueue.Waiter waiter = claimWaiter(spot);
+                if (waiter != null) {
+                    occupy(spot);
+                    waiter.assign(newTicket(waiter.getTicketId(), waiter.getVehicle(), spot));
+                    served.add(waiter);
+                }
+            }
+        }
+        return served;
+    }
 
     /**
-     * Get the number of free spots
+     * Check if there are free spots, without taking the lock
      */
-    public abstract int getAvailableSpotsCount();
+    public boolean hasAvailableSpot() {
+        return getAvailableSpotsCount() > 0;
+    }
+
+    /**
+     * Get the number of free spots, without taking the lock
+     */
+    public int getAvailableSpotsCount() {
+        int count = 0;
+        for (int i = 0; i < freeBySpotType.length(); i++) {
+            count += freeBySpotType.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of free spots that can take the given vehicle type, without taking the lock
+     */
+    public int getAvailableSpotsCount(VehicleType type) {
+        boolean[] fits = FITS[type.ordinal()];
+        int count = 0;
+        for (int i = 0; i < fits.length; i++) {
+            if (fits[i]) {
+                count += freeBySpotType.get(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of free spots of one spot type, without taking the lock
+     */
+    public int getAvailableSpotsCount(SpotType type) {
+        return freeBySpotType.get(type.ordinal());
+    }
 
     /**
      * Get the total number of spots managed by this manager
@@ -55,4 +195,181 @@ public abstract class VehicleManager {
      * Display the status of spots managed by this manager
      */
     public abstract void displayStatus();
+
+    /**
+     * Take a spot out of service. New vehicles are no longer assigned to it;
+     * a vehicle already parked there stays until it leaves normally.
+     * The future completes once the spot is empty.
+     */
+    public CompletableFuture<ParkingSpot> disableSpot(ParkingSpot spot) {
+        synchronized (lock) {
+            requireManaged(spot);
+            boolean wasFree = spot.isFree();
+            CompletableFuture<ParkingSpot> drained = spot.disable();
+            if (wasFree) {
+                freeBySpotType.decrementAndGet(spot.getSpotType().ordinal());
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * Put a disabled spot back into service, cancelling any pending drain or removal
+     */
+    public void enableSpot(ParkingSpot spot) {
+        synchronized (lock) {
+            requireManaged(spot);
+            boolean wasFree = spot.isFree();
+            spot.enable();
+            if (!wasFree && spot.isFree()) {
+                freeBySpotType.incrementAndGet(spot.getSpotType().ordinal());
+            }
+        }
+    }
+
+    /**
+     * Disable a spot and drop it from this manager once it has drained.
+     * The future completes with the detached spot, or is cancelled if the
+     * spot is re-enabled before it has been removed.
+     */
+    public CompletableFuture<ParkingSpot> removeSpot(ParkingSpot spot) {
+        CompletableFuture<ParkingSpot> drain;
+        int enables;
+        synchronized (lock) {
+            drain = disableSpot(spot);
+            enables = spot.getEnableCount();
+        }
+        return drain.thenApply(drained -> {
+            synchronized (lock) {
+                // Re-enabled after draining, even if disabled again since, cancels the removal
+                if (drained.getEnableCount() != enables || drained.isOccupied()) {
+                    throw new CancellationException("Spot was re-enabled before it could be removed");
+                }
+                spots.remove(drained);
+            }
+            return drained;
+        });
+    }
+
+    /**
+     * Disable every spot; the future completes when all of them are empty
+     */
+    public CompletableFuture<Void> disableAllSpots() {
+        List<CompletableFuture<ParkingSpot>> pending = new ArrayList<>();
+        synchronized (lock) {
+            for (ParkingSpot spot : spots) {
+                if (spot.isFree()) {
+                    freeBySpotType.decrementAndGet(spot.getSpotType().ordinal());
+                }
+                pending.add(spot.disable());
+            }
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Snapshot of the spots currently held by this manager
+     */
+    public List<ParkingSpot> getSpots() {
+        synchronized (lock) {
+            return new ArrayList<>(spots);
+        }
+    }
+
+    /**
+     * Get the number of spots taken out of service
+     */
+    public int getDisabledSpotsCount() {
+        synchronized (lock) {
+            int count = 0;
+            for (ParkingSpot spot : spots) {
+                if (spot.isDisabled()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Share a lot-wide queue of waiting vehicles with this manager
+     */
+    public void setWaitQueue(SpotWaitQueue waitQueue) {
+        this.waitQueue = waitQueue;
+    }
+
+    /**
+     * Start tracking a newly added spot in the free counters. Call under the lock.
+     */
+    protected void track(ParkingSpot spot) {
+        if (spot.isFree()) {
+            freeBySpotType.incrementAndGet(spot.getSpotType().ordinal());
+        }
+    }
+
+    /**
+     * Clock stamped on the tickets this manager issues
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Install a hook called around lock acquisition on park and release, or null to remove it
+     */
+    public void setLockHook(LockHook lockHook) {
+        this.lockHook = lockHook;
+    }
+
+    protected final void beforeLock(String operation) {
+        LockHook hook = lockHook;
+        if (hook != null) {
+            hook.beforeLock(this, operation);
+        }
+    }
+
+    protected final void insideLock(String operation) {
+        LockHook hook = lockHook;
+        if (hook != null) {
+            hook.insideLock(this, operation);
+        }
+    }
+
+    protected ParkingTicket newTicket(String ticketId, Vehicle vehicle, ParkingSpot spot) {
+        return new ParkingTicket(ticketId, vehicle, spot, timeSource);
+    }
+
+    /**
+     * Rebuild the free counters from the spots themselves, after something other
+     * than this manager (e.g. a floor event loop) has been parking on them
+     */
+    public void recount() {
+        synchronized (lock) {
+            for (int i = 0; i < freeBySpotType.length(); i++) {
+                freeBySpotType.set(i, 0);
+            }
+            for (ParkingSpot spot : spots) {
+                track(spot);
+            }
+        }
+    }
+
+    /**
+     * Occupy a free spot and update the free counters. Call under the lock.
+     */
+    protected void occupy(ParkingSpot spot) {
+        spot.occupy();
+        freeBySpotType.decrementAndGet(spot.getSpotType().ordinal());
+    }
+
+    private SpotWaitQueue.Waiter claimWaiter(ParkingSpot spot) {
+        SpotWaitQueue queue = waitQueue;
+        return queue == null ? null : queue.claimFor(spot);
+    }
+
+    private void requireManaged(ParkingSpot spot) {
+        if (!spots.contains(spot)) {
+            throw new IllegalArgumentException("Spot is not managed by this manager");
+        }
+    }
 }
@@ -1,12 +1,114 @@
 package models;
 
+import codec.TicketCodec;
+import helpers.TimeSource;
+import permits.PermitRegistry;
+import service.IdempotencyCache;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class EntryPanel {
+    private final String gateId;
+    private final ParkingFloor floor;
+    private final IdempotencyCache<ParkingTicket> issuedTickets;
+    private volatile PermitRegistry permits;
+    private final List<GateListener> listeners = new CopyOnWriteArrayList<>();
+
+    public EntryPanel() {
+        this("ENTRY", null);
+    }
+
+    /**
+     * Gate bound to the floor it physically opens onto
+     */
+    public EntryPanel(String gateId, ParkingFloor floor) {
+        this.gateId = gateId;
+        this.floor = floor;
+        // Retry windows follow the floor's clock, which the lot keeps in step with its own
+        TimeSource clock = floor == null ? TimeSource.defaultSource() : () -> floor.getTimeSource().currentTimeMillis();
+        this.issuedTickets = new IdempotencyCache<>(10_000, Duration.ofMinutes(15), clock);
+    }
+
+    /**
+     * Issue a parking ticket for a vehicle on this gate's own floor
+     */
+    public ParkingTicket issueTicket(Vehicle vehicle) {
+        if (floor == null) {
+            throw new IllegalStateException("Entry gate " + gateId + " is not bound to a floor");
+        }
+        return issueTicket(floor, vehicle);
+    }
+
+    /**
+     * Issue a ticket on this gate's own floor and print its binary receipt at the
+     * buffer's position, for an exit gate to scan with a {@link service.ReceiptScanner}.
+     * The plate and buffer are checked before a spot is taken, so a receipt that
+     * cannot be printed never leaves a vehicle parked without one.
+     *
+     * @return the ticket, or null with nothing printed if the vehicle was turned away
+     */
+    public ParkingTicket issueTicket(Vehicle vehicle, ByteBuffer receipt) {
+        if (floor == null || floor.getId() < 0) {
+            throw new IllegalStateException("Entry gate " + gateId + " is not bound to a floor in a lot");
+        }
+        TicketCodec.checkPlate(vehicle.getNumber());
+        if (receipt.remaining() < TicketCodec.ENCODED_SIZE) {
+            throw new BufferOverflowException();
+        }
+        ParkingTicket ticket = issueTicket(floor, vehicle);
+        if (ticket != null) {
+            TicketCodec.encode(ticket, receipt);
+        }
+        return ticket;
+    }
+
     /**
      * Issue a parking ticket for a vehicle
      * Uses vehicle manager's fine-grained locking
      */
     public ParkingTicket issueTicket(ParkingFloor floor, Vehicle vehicle) {
-        return floor.parkVehicle(vehicle);
+        return recordEntry(vehicle, floor.parkVehicle(vehicle));
+    }
+
+    /**
+     * Report a vehicle that came through this gate but was parked by someone else,
+     * e.g. an admission controller searching several floors or serving its wait
+     * queue. Permit holders are settled and listeners told as for {@link #issueTicket};
+     * a null ticket means the vehicle was turned away.
+     */
+    public ParkingTicket recordEntry(Vehicle vehicle, ParkingTicket ticket) {
+        PermitRegistry registry = permits;
+        if (ticket != null && registry != null && registry.isEntitled(ticket)) {
+            ticket.coverByPermit();
+        }
+        for (GateListener listener : listeners) {
+            if (ticket != null) {
+                listener.onEntry(gateId, ticket);
+            } else {
+                listener.onEntryRejected(gateId, vehicle);
+            }
+        }
+        return ticket;
+    }
+
+    /**
+     * Retry-safe variant of {@link #issueTicket(Vehicle)}: a gate controller that
+     * times out and resends the same request id gets the original ticket back
+     * instead of allocating a second spot
+     */
+    public ParkingTicket issueTicketOnce(String requestId, Vehicle vehicle) {
+        return issuedTickets.execute(requestId, () -> issueTicket(vehicle));
+    }
+
+    /**
+     * Retry-safe variant of {@link #issueTicket(ParkingFloor, Vehicle)}
+     */
+    public ParkingTicket issueTicketOnce(String requestId, ParkingFloor floor, Vehicle vehicle) {
+        return issuedTickets.execute(requestId, () -> issueTicket(floor, vehicle));
     }
 
     /**
@@ -18,4 +120,30 @@ public class EntryPanel {
         ParkingTicket ticket = floor.parkVehicle(vehicle);
         return ticket;
     }
+
+    /**
+     * Settle tickets of permit holders at entry, so they leave without paying
+     */
+    public void setPermitRegistry(PermitRegistry permits) {
+        this.permits = permits;
+    }
+
+    /**
+     * Register a listener for tickets issued, and vehicles turned away, at this gate
+     */
+    public void addListener(GateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GateListener listener) {
+        listeners.remove(listener);
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public ParkingFloor getFloor() {
+        return floor;
+    }
 }
@@ -1,15 +1,137 @@
 package models;
 
+import helpers.TimeSource;
+import permits.PermitRegistry;
+import service.IdempotencyCache;
+import service.ReceiptScanner;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class ExitPanel {
+    private final String gateId;
+    private final ParkingFloor floor;
+    private final IdempotencyCache<Boolean> completedExits;
+    private volatile boolean verbose = true;
+    private volatile PermitRegistry permits;
+    private final List<GateListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ExitPanel() {
+        this("EXIT", null);
+    }
+
+    /**
+     * Gate bound to the floor it physically sits on
+     */
+    public ExitPanel(String gateId, ParkingFloor floor) {
+        this.gateId = gateId;
+        this.floor = floor;
+        // Retry windows follow the floor's clock, which the lot keeps in step with its own
+        TimeSource clock = floor == null ? TimeSource.defaultSource() : () -> floor.getTimeSource().currentTimeMillis();
+        this.completedExits = new IdempotencyCache<>(10_000, Duration.ofMinutes(15), clock);
+    }
+
+    /**
+     * Process vehicle exit, releasing the spot on the floor the ticket was issued for
+     */
+    public void exit(ParkingTicket ticket) {
+        exit(ticket, floorFor(ticket));
+    }
+
     /**
      * Process vehicle exit with payment verification
      * Uses vehicle manager's fine-grained locking
      */
     public void exit(ParkingTicket ticket, ParkingFloor floor) {
+        release(ticket, floor);
+    }
+
+    /**
+     * Exit by scanning the binary receipt printed at entry
+     *
+     * @return true if the spot was released, false if the ticket had already exited
+     */
+    public boolean exit(ByteBuffer receipt, ReceiptScanner scanner) {
+        ParkingTicket ticket = scanner.resolve(receipt);
+        if (ticket == null) {
+            throw new IllegalArgumentException("Receipt does not match an active ticket at gate " + gateId);
+        }
+        return release(ticket, floorFor(ticket));
+    }
+
+    /**
+     * Retry-safe exit: repeating a request id returns the original outcome
+     * without going back to the floor or its managers
+     *
+     * @return true if this request released the spot, false if the ticket had already exited
+     */
+    public boolean exitOnce(String requestId, ParkingTicket ticket) {
+        return completedExits.execute(requestId, () -> release(ticket, floorFor(ticket)));
+    }
+
+    private boolean release(ParkingTicket ticket, ParkingFloor floor) {
+        if (ticket.isExited()) {
+            return false;
+        }
+        PermitRegistry registry = permits;
+        if (!ticket.isPaid() && registry != null && registry.isEntitled(ticket)) {
+            ticket.coverByPermit();
+        }
         if (!ticket.isPaid()) {
             throw new IllegalStateException("Payment required before exit");
         }
-        floor.releaseVehicle(ticket);
-        System.out.println("Exit successful");
+        if (!floor.releaseVehicle(ticket)) {
+            return false; // Another exit for the same ticket got there first
+        }
+        for (GateListener listener : listeners) {
+            listener.onExit(gateId, ticket);
+        }
+        if (verbose) {
+            System.out.println("Exit successful");
+        }
+        return true;
+    }
+
+    private ParkingFloor floorFor(ParkingTicket ticket) {
+        ParkingFloor ticketFloor = ticket.getSpot().getFloor() != null ? ticket.getSpot().getFloor() : floor;
+        if (ticketFloor == null) {
+            throw new IllegalStateException("Cannot determine floor for exit at gate " + gateId);
+        }
+        return ticketFloor;
+    }
+
+    /**
+     * Turn exit messages on or off, e.g. for simulations and benchmarks
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Let permit holders through without a payment, e.g. a permit bought while parked
+     */
+    public void setPermitRegistry(PermitRegistry permits) {
+        this.permits = permits;
+    }
+
+    /**
+     * Register a listener for exits through this gate
+     */
+    public void addListener(GateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GateListener listener) {
+        listeners.remove(listener);
+    }
+
+    public String getGateId() {
+        return gateId;
+    }
+
+    public ParkingFloor getFloor() {
+        return floor;
     }
 }
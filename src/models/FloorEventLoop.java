@@ -0,0 +1,441 @@
+package models;
+
+import enums.SpotType;
+import enums.VehicleType;
+import helpers.TicketIds;
+import managers.SpotWaitQueue;
+import managers.VehicleManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer execution mode for a floor.
+ *
+ * Gates submit park and release commands to a lock-free multi-producer queue and
+ * get a future back. One loop thread owns every spot on the floor: it drains the
+ * queue in batches, applies the commands to plain (unsynchronized) free lists,
+ * publishes an immutable {@link Snapshot} once per batch and only then completes
+ * the batch's futures. No lock is taken on the park / release path.
+ *
+ * While the loop runs it is the only writer of the floor's spots; the floor routes
+ * its own park / release calls through it, and calls made from the loop thread
+ * itself (e.g. by a listener) are applied on the spot instead of being queued.
+ * Spot maintenance is rejected in this mode. The lot's wait queue is served as
+ * in locked mode: an exit hands its spot to the oldest waiter that fits, and a
+ * drive-up only parks once queued vehicles of its type have been given the free
+ * spots. Calls that arrive while the loop is stopping wait for the floor to go
+ * back to its locked managers and complete there.
+ */
+public class FloorEventLoop {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final ParkingFloor floor;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+    // Loop-thread state: touched by nothing else while the loop is running
+    private final List<ArrayDeque<ParkingSpot>> freeBySpotType = new ArrayList<>();
+    private final SpotType[][] fittingTypes = new SpotType[VehicleType.values().length][];
+    private long batches;
+    private long applied;
+
+    private final CompletableFuture<Void> detached = new CompletableFuture<>();
+    private volatile Snapshot snapshot;
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public FloorEventLoop(ParkingFloor floor) {
+        this(floor, DEFAULT_BATCH_SIZE);
+    }
+
+    public FloorEventLoop(ParkingFloor floor, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.floor = floor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Take ownership of the floor's spots and start the loop thread
+     */
+    public synchronized FloorEventLoop start() {
+        if (thread != null || running) {
+            throw new IllegalStateException("Event loop for " + floor.getName() + " already started");
+        }
+        for (SpotType type : SpotType.values()) {
+            freeBySpotType.add(new ArrayDeque<>());
+        }
+        for (VehicleType vehicleType : VehicleType.values()) {
+            List<SpotType> fitting = new ArrayList<>();
+            for (SpotType spotType : SpotType.values()) {
+                try {
+                    if (ParkingSpot.of(spotType).canFit(vehicleType)) {
+                        fitting.add(spotType);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // No implementation for this spot type
+                }
+            }
+            fittingTypes[vehicleType.ordinal()] = fitting.toArray(new SpotType[0]);
+        }
+        // Accept commands before the floor routes them here; they queue until the thread starts
+        snapshot = new Snapshot(0, 0, freeCounts(), 0);
+        running = true;
+        try {
+            floor.attachEventLoop(this);
+        } catch (RuntimeException e) {
+            running = false;
+            throw e;
+        }
+        // Locked-mode calls have drained, so the managers' spots are settled
+        int total = 0;
+        for (VehicleManager manager : floor.getDistinctManagers()) {
+            for (ParkingSpot spot : manager.getSpots()) {
+                total++;
+                if (spot.isFree()) {
+                    freeBySpotType.get(spot.getSpotType().ordinal()).add(spot);
+                }
+            }
+        }
+        snapshot = new Snapshot(0, total, freeCounts(), 0);
+        Thread loopThread = new Thread(this::run, "floor-loop-" + floor.getName());
+        loopThread.setDaemon(true);
+        thread = loopThread;
+        loopThread.start();
+        return this;
+    }
+
+    /**
+     * Stop the loop once the commands already queued have been applied.
+     * The floor goes back to its locked managers.
+     */
+    public void stop() throws InterruptedException {
+        Thread loopThread;
+        synchronized (this) {
+            loopThread = thread;
+            running = false;
+        }
+        if (loopThread == null) {
+            return;
+        }
+        LockSupport.unpark(loopThread);
+        loopThread.join();
+        floor.detachEventLoop(this);
+        detached.complete(null);
+    }
+
+    /**
+     * Queue a park; the future completes with the ticket, or null if no spot fits
+     */
+    public CompletableFuture<ParkingTicket> park(Vehicle vehicle) {
+        return submit(new Command(vehicle, null, TicketIds.next()));
+    }
+
+    /**
+     * Queue a release; the future completes with the ticket, or null if it had already exited
+     */
+    public CompletableFuture<ParkingTicket> release(ParkingTicket ticket) {
+        return submit(new Command(null, ticket, null));
+    }
+
+    /**
+     * Like {@link #park}, but returns null instead of a failed future if the loop is not running
+     */
+    CompletableFuture<ParkingTicket> tryPark(Vehicle vehicle) {
+        Command command = new Command(vehicle, null, TicketIds.next());
+        return offer(command) ? command.future : null;
+    }
+
+    CompletableFuture<ParkingTicket> tryRelease(ParkingTicket ticket) {
+        Command command = new Command(null, ticket, null);
+        return offer(command) ? command.future : null;
+    }
+
+    /**
+     * Queue a pass handing free spots to waiting vehicles; false if the loop is not running
+     */
+    boolean tryServeWaiters() {
+        return offer(new Command(null, null, null));
+    }
+
+    /**
+     * Completes once the loop has stopped and handed the floor back to its managers
+     */
+    CompletableFuture<Void> detached() {
+        return detached;
+    }
+
+    void awaitDetached() {
+        detached.join();
+    }
+
+    /**
+     * State as of the last applied batch, read without locking
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Average number of commands applied per batch
+     */
+    public double getAverageBatchSize() {
+        Snapshot current = snapshot;
+        return current.version == 0 ? 0 : (double) current.applied / current.version;
+    }
+
+    private CompletableFuture<ParkingTicket> submit(Command command) {
+        if (!offer(command)) {
+            command.future.completeExceptionally(
+                    new IllegalStateException("Event loop for " + floor.getName() + " is not running"));
+        }
+        return command.future;
+    }
+
+    /**
+     * Hand a command to the loop; false if the loop is not running and will not apply it
+     */
+    private boolean offer(Command command) {
+        if (Thread.currentThread() == thread) {
+            // Issued from the loop itself, e.g. by a listener: waiting for the queue would deadlock
+            ParkingTicket result = apply(command);
+            applied++;
+            command.future.complete(result);
+            return true;
+        }
+        if (!running) {
+            return false;
+        }
+        commands.add(command);
+        if (!running && commands.remove(command)) {
+            // Lost the race with stop(): the loop may already have exited
+            return false;
+        }
+        if (sleeping.get()) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private void run() {
+        Command[] batch = new Command[batchSize];
+        ParkingTicket[] results = new ParkingTicket[batchSize];
+        while (true) {
+            int count = 0;
+            Command command;
+            while (count < batchSize && (command = commands.poll()) != null) {
+                batch[count++] = command;
+            }
+            if (count == 0) {
+                if (!running) {
+                    // A submit that saw the loop running may have queued after the poll above
+                    if (commands.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                sleeping.set(true);
+                // Re-check after announcing the sleep so a concurrent submit cannot be missed
+                if (commands.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                sleeping.set(false);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                results[i] = apply(batch[i]);
+            }
+            batches++;
+            applied += count;
+            snapshot = new Snapshot(batches, snapshot.totalSpots, freeCounts(), applied);
+            for (int i = 0; i < count; i++) {
+                batch[i].future.complete(results[i]);
+                batch[i] = null;
+                results[i] = null;
+            }
+        }
+    }
+
+    private ParkingTicket apply(Command command) {
+        try {
+            if (command.vehicle != null) {
+                return applyPark(command);
+            }
+            if (command.ticket != null) {
+                return applyRelease(command.ticket);
+            }
+            serveWaiters(null);
+            return null;
+        } catch (RuntimeException e) {
+            command.future.completeExceptionally(e);
+            return null;
+        }
+    }
+
+    private ParkingTicket applyPark(Command command) {
+        VehicleType vehicleType = command.vehicle.getType();
+        SpotWaitQueue queue = floor.getWaitQueue();
+        if (queue != null && queue.getWaitingCount(vehicleType) > 0) {
+            // Don't let a drive-up overtake the queue: hand free spots to waiters first
+            serveWaiters(vehicleType);
+        }
+        for (SpotType type : fittingTypes[command.vehicle.getType().ordinal()]) {
+            ArrayDeque<ParkingSpot> free = freeBySpotType.get(type.ordinal());
+            ParkingSpot spot = free.pollFirst();
+            // Drop entries that are occupied or disabled rather than hand them out twice
+            while (spot != null && !spot.isFree()) {
+                spot = free.pollFirst();
+            }
+            if (spot != null) {
+                spot.occupy();
+                ParkingTicket ticket = new ParkingTicket(command.ticketId, command.vehicle, spot, floor.getTimeSource());
+                floor.firePark(ticket);
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+    private ParkingTicket applyRelease(ParkingTicket ticket) {
+        ParkingSpot spot = ticket.getSpot();
+        if (spot.getFloor() != floor) {
+            throw new IllegalArgumentException("Ticket " + ticket.getTicketId() + " is not for floor " + floor.getName());
+        }
+        if (!ticket.markExited()) {
+            return null;
+        }
+        SpotWaitQueue queue = floor.getWaitQueue();
+        SpotWaitQueue.Waiter waiter = queue == null || spot.isDisabled() ? null : queue.claimFor(spot);
+        if (waiter == null) {
+            spot.release();
+            if (spot.isFree()) {
+                freeBySpotType.get(spot.getSpotType().ordinal()).addFirst(spot);
+            }
+        }
+        floor.fireRelease(ticket);
+        if (waiter != null) {
+            // Spot stays occupied: it changes hands without ever being free
+            handOver(waiter, spot);
+        }
+        return ticket;
+    }
+
+    /**
+     * Give free spots to queued vehicles, oldest first; only spots that fit
+     * {@code vehicleType} when one is given
+     */
+    private void serveWaiters(VehicleType vehicleType) {
+        SpotWaitQueue queue = floor.getWaitQueue();
+        if (queue == null || !queue.hasWaiters()) {
+            return;
+        }
+        SpotType[] types = vehicleType == null ? SpotType.values() : fittingTypes[vehicleType.ordinal()];
+        for (SpotType type : types) {
+            ArrayDeque<ParkingSpot> free = freeBySpotType.get(type.ordinal());
+            ParkingSpot spot;
+            while ((spot = free.peekFirst()) != null) {
+                if (!spot.isFree()) {
+                    free.pollFirst();
+                    continue;
+                }
+                SpotWaitQueue.Waiter waiter = queue.claimFor(spot);
+                if (waiter == null) {
+                    break;
+                }
+                free.pollFirst();
+                spot.occupy();
+                handOver(waiter, spot);
+            }
+        }
+    }
+
+    private void handOver(SpotWaitQueue.Waiter waiter, ParkingSpot spot) {
+        waiter.assign(new ParkingTicket(waiter.getTicketId(), waiter.getVehicle(), spot, floor.getTimeSource()));
+        floor.handOver(Collections.singletonList(waiter));
+    }
+
+    private int[] freeCounts() {
+        int[] counts = new int[freeBySpotType.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = freeBySpotType.get(i).size();
+        }
+        return counts;
+    }
+
+    // A park, a release, or with neither a vehicle nor a ticket, a pass over the wait queue
+    private static final class Command {
+        final Vehicle vehicle;
+        final ParkingTicket ticket;
+        final String ticketId;
+        final CompletableFuture<ParkingTicket> future = new CompletableFuture<>();
+
+        Command(Vehicle vehicle, ParkingTicket ticket, String ticketId) {
+            this.vehicle = vehicle;
+            this.ticket = ticket;
+            this.ticketId = ticketId;
+        }
+    }
+
+    /**
+     * Immutable view of a floor published by its event loop after each batch
+     */
+    public final class Snapshot {
+        private final long version;
+        private final int totalSpots;
+        private final int[] freeBySpotType;
+        private final long applied;
+
+        private Snapshot(long version, int totalSpots, int[] freeBySpotType, long applied) {
+            this.version = version;
+            this.totalSpots = totalSpots;
+            this.freeBySpotType = freeBySpotType;
+            this.applied = applied;
+        }
+
+        /**
+         * Number of batches applied before this snapshot was taken
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public int getTotalSpots() {
+            return totalSpots;
+        }
+
+        public int getFreeCount(SpotType type) {
+            return freeBySpotType[type.ordinal()];
+        }
+
+        /**
+         * Free spots that can take the given vehicle type
+         */
+        public int getAvailableCount(VehicleType type) {
+            int count = 0;
+            for (SpotType spotType : fittingTypes[type.ordinal()]) {
+                count += freeBySpotType[spotType.ordinal()];
+            }
+            return count;
+        }
+
+        public int getOccupiedCount() {
+            int free = 0;
+            for (int count : freeBySpotType) {
+                free += count;
+            }
+            return totalSpots - free;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package models;
+
+/**
+ * Callback for traffic through a specific gate. Floor events do not say which
+ * gate a vehicle used; panels report that here, on the gate thread, once the
+ * entry or exit has gone through.
+ */
+public interface GateListener {
+    /**
+     * Called after an entry gate has issued a ticket
+     */
+    default void onEntry(String gateId, ParkingTicket ticket) {
+    }
+
+    /**
+     * Called when an entry gate turned a vehicle away because no spot fitted
+     */
+    default void onEntryRejected(String gateId, Vehicle vehicle) {
+    }
+
+    /**
+     * Called after an exit gate has released a ticket's spot
+     */
+    default void onExit(String gateId, ParkingTicket ticket) {
+    }
+}
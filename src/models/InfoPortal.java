@@ -2,16 +2,44 @@ package models;
 
 import enums.PaymentMode;
 import service.PaymentService;
+import service.SpotQueryService;
 
 public class InfoPortal {
     private final PaymentService paymentService;
+    private final SpotQueryService queries;
 
     public InfoPortal(PaymentService paymentService) {
+        this(paymentService, null);
+    }
+
+    /**
+     * @param queries lot-wide lookups for "where is my car"
+     */
+    public InfoPortal(PaymentService paymentService, SpotQueryService queries) {
         this.paymentService = paymentService;
+        this.queries = queries;
+    }
+
+    /**
+     * Spot the vehicle with this plate is parked in, or null if it is not parked here
+     */
+    public ParkingSpot locateVehicle(String plate) {
+        if (queries == null) {
+            throw new IllegalStateException("Vehicle lookup is not available at this portal");
+        }
+        ParkingTicket ticket = queries.locate(plate);
+        return ticket == null ? null : ticket.getSpot();
+    }
+
+    public double pay(ParkingTicket ticket, PaymentMode mode) {
+        return paymentService.pay(ticket, mode);
     }
 
-    public void pay(ParkingTicket ticket, PaymentMode mode) {
-        paymentService.pay(ticket, mode);
+    /**
+     * Retry-safe payment keyed by the client's request id
+     */
+    public double payOnce(String requestId, ParkingTicket ticket, PaymentMode mode) {
+        return paymentService.payOnce(requestId, ticket, mode);
     }
 }
 
@@ -0,0 +1,60 @@
+package models;
+
+/**
+ * Callback for vehicles entering and leaving a floor.
+ * Invoked on the gate thread after the manager lock has been released,
+ * so implementations must be thread-safe and should return quickly.
+ */
+public interface ParkingEventListener {
+    /**
+     * Called after a vehicle has been parked and its ticket issued
+     */
+    default void onPark(ParkingFloor floor, ParkingTicket ticket) {
+    }
+
+    /**
+     * Called after a parked vehicle has released its spot
+     */
+    default void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+    }
+
+    /**
+     * Called after a spot has been added to the floor
+     */
+    default void onSpotAdded(ParkingFloor floor, ParkingSpot spot) {
+    }
+
+    /**
+     * Called after a spot has been taken out of service; it may still be occupied
+     */
+    default void onSpotDisabled(ParkingFloor floor, ParkingSpot spot) {
+    }
+
+    /**
+     * Called after a disabled spot has been put back into service
+     */
+    default void onSpotEnabled(ParkingFloor floor, ParkingSpot spot) {
+    }
+
+    /**
+     * Called after a drained spot has been detached from the floor
+     */
+    default void onSpotRemoved(ParkingFloor floor, ParkingSpot spot) {
+    }
+
+    /**
+     * Called on lot listeners once a floor has joined the lot, and for each floor
+     * already there when the listener is added. Runs under the lot's topology lock,
+     * so it is never overtaken by {@link #onFloorRemoved} for the same floor; it must
+     * not add or remove floors or listeners
+     */
+    default void onFloorAdded(ParkingFloor floor) {
+    }
+
+    /**
+     * Called on lot listeners after a drained floor has been detached from the lot;
+     * drop anything held for it
+     */
+    default void onFloorRemoved(ParkingFloor floor) {
+    }
+}
@@ -2,13 +2,23 @@ package models;
 
 import enums.SpotType;
 import enums.VehicleType;
+import helpers.TicketIds;
+import helpers.TimeSource;
 import managers.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ParkingFloor manages multiple vehicle managers.
@@ -17,7 +27,18 @@ import java.util.UUID;
 public class ParkingFloor {
     private final String name;
     private final Map<VehicleType, VehicleManager> vehicleManagers = new HashMap<>();
+    // Locked-mode calls in progress per manager; an event loop takes over only once they drain
+    private final Map<VehicleManager, AtomicInteger> inFlight = new IdentityHashMap<>();
     private final DisplayBoard displayBoard = new DisplayBoard();
+    private final List<ParkingEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextSpotIndex = new AtomicInteger();
+    // Spots by index for O(1) lookup; writers copy-on-grow under indexLock and republish
+    private final Object indexLock = new Object();
+    private volatile ParkingSpot[] spotsByIndex = new ParkingSpot[16];
+    private volatile FloorEventLoop eventLoop;
+    private volatile SpotWaitQueue waitQueue;
+    private volatile int id = -1;
+    private volatile TimeSource timeSource = TimeSource.defaultSource();
 
     public ParkingFloor(String name) {
         this.name = name;
@@ -28,50 +49,490 @@ public class ParkingFloor {
      * Initialize vehicle managers for all vehicle types
      */
     private void initializeManagers() {
+        // Vehicle types that share spots must share a manager, otherwise the
+        // second type would get an empty manager of its own
+        FourWheelerManager fourWheelerManager = new FourWheelerManager();
+        LargeVehicleManager largeVehicleManager = new LargeVehicleManager();
         vehicleManagers.put(VehicleType.MOTORCYCLE, new TwoWheelerManager());
-        vehicleManagers.put(VehicleType.CAR, new FourWheelerManager());
-        vehicleManagers.put(VehicleType.ELECTRIC, new FourWheelerManager());
-        vehicleManagers.put(VehicleType.TRUCK, new LargeVehicleManager());
-        vehicleManagers.put(VehicleType.VAN, new LargeVehicleManager());
+        vehicleManagers.put(VehicleType.CAR, fourWheelerManager);
+        vehicleManagers.put(VehicleType.ELECTRIC, fourWheelerManager);
+        vehicleManagers.put(VehicleType.TRUCK, largeVehicleManager);
+        vehicleManagers.put(VehicleType.VAN, largeVehicleManager);
+        for (VehicleManager manager : vehicleManagers.values()) {
+            inFlight.putIfAbsent(manager, new AtomicInteger());
+        }
     }
 
     /**
      * Add a parking spot to the appropriate manager
      */
     public void addSpot(ParkingSpot spot) {
-        // Determine which manager should handle this spot
-        if (spot instanceof MotorcycleSpot) {
-            vehicleManagers.get(VehicleType.MOTORCYCLE).addSpot(spot);
-        } else if (spot instanceof CompactSpot || spot instanceof ElectricSpot) {
-            // Use the same FourWheelerManager for both
-            FourWheelerManager manager = (FourWheelerManager) vehicleManagers.get(VehicleType.CAR);
+        List<SpotWaitQueue.Waiter> served = Collections.emptyList();
+        VehicleManager manager = getManagerForSpot(spot);
+        enterMaintenance("add a spot");
+        try {
+            spot.placeOn(this, nextSpotIndex.getAndIncrement());
+            if (manager != null) {
+                index(spot);
+                manager.addSpot(spot);
+                served = manager.serveWaiters();
+            }
+        } finally {
+            exitAll();
+        }
+        if (manager != null) {
+            for (ParkingEventListener listener : listeners) {
+                listener.onSpotAdded(this, spot);
+            }
+        }
+        handOver(served);
+        refreshDisplay();
+    }
+
+    /**
+     * Bulk-add spots: indexes are assigned and spots grouped by manager in one
+     * pass, then the index table is sized and filled once and each manager
+     * takes its lock once for its whole group
+     */
+    public void addSpots(List<? extends ParkingSpot> spots) {
+        Map<VehicleManager, List<ParkingSpot>> byManager = new IdentityHashMap<>();
+        List<ParkingSpot> managed = new ArrayList<>(spots.size());
+        enterMaintenance("add spots");
+        try {
+            int next = nextSpotIndex.getAndAdd(spots.size());
+            for (ParkingSpot spot : spots) {
+                spot.placeOn(this, next++);
+                VehicleManager manager = getManagerForSpot(spot);
+                if (manager != null) {
+                    managed.add(spot);
+                    byManager.computeIfAbsent(manager, m -> new ArrayList<>()).add(spot);
+                }
+            }
+            index(managed, next);
+            byManager.forEach(VehicleManager::addSpots);
+        } finally {
+            exitAll();
+        }
+        for (ParkingEventListener listener : listeners) {
+            for (List<ParkingSpot> added : byManager.values()) {
+                for (ParkingSpot spot : added) {
+                    listener.onSpotAdded(this, spot);
+                }
+            }
+        }
+        serveWaiters();
+        refreshDisplay();
+    }
+
+    /**
+     * Take a spot out of service; the future completes once it is empty
+     */
+    public CompletableFuture<ParkingSpot> disableSpot(ParkingSpot spot) {
+        VehicleManager manager = requireManagerForSpot(spot);
+        CompletableFuture<ParkingSpot> drained;
+        enterMaintenance("disable a spot");
+        try {
+            drained = manager.disableSpot(spot);
+        } finally {
+            exitAll();
+        }
+        fireSpotDisabled(spot);
+        return drained;
+    }
+
+    public void enableSpot(ParkingSpot spot) {
+        VehicleManager manager = requireManagerForSpot(spot);
+        enterMaintenance("enable a spot");
+        try {
+            manager.enableSpot(spot);
+        } finally {
+            exitAll();
+        }
+        for (ParkingEventListener listener : listeners) {
+            listener.onSpotEnabled(this, spot);
+        }
+        serveWaiters();
+    }
+
+    /**
+     * Drain a spot and detach it from this floor
+     */
+    public CompletableFuture<ParkingSpot> removeSpot(ParkingSpot spot) {
+        VehicleManager manager = requireManagerForSpot(spot);
+        CompletableFuture<ParkingSpot> removal;
+        enterMaintenance("remove a spot");
+        try {
+            removal = manager.removeSpot(spot);
+        } finally {
+            exitAll();
+        }
+        fireSpotDisabled(spot);
+        return removal.thenApply(removed -> {
+            unindex(removed);
+            for (ParkingEventListener listener : listeners) {
+                listener.onSpotRemoved(this, removed);
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * Convert a spot to another type, e.g. a compact bay to EV charging.
+     * The old spot drains, then a new spot of the requested type takes over its index.
+     * If an event loop owns the floor by then, the new spot goes in once the loop
+     * hands the floor back, so the bay is never lost.
+     */
+    public CompletableFuture<ParkingSpot> retypeSpot(ParkingSpot spot, SpotType newType) {
+        ParkingSpot replacement = ParkingSpot.of(newType);
+        VehicleManager target = requireManagerForSpot(replacement);
+        return removeSpot(spot).thenCompose(removed -> install(replacement, removed.getIndex(), target));
+    }
+
+    /**
+     * Drain a spot and re-home it on another floor. The target floor must have a
+     * manager for the spot's type; this is checked before anything is drained.
+     */
+    public CompletableFuture<ParkingSpot> moveSpot(ParkingSpot spot, ParkingFloor targetFloor) {
+        VehicleManager target = targetFloor.requireManagerForSpot(spot);
+        return removeSpot(spot).thenCompose(removed -> {
+            refreshDisplay();
+            return targetFloor.install(removed, -1, target);
+        });
+    }
+
+    /**
+     * Put a spot that left another manager into {@code manager}, at {@code index}
+     * or the next free index if negative. A drained spot goes in still disabled and
+     * is re-enabled through the manager, so its free counter moves under that
+     * manager's lock. If an event loop owns the floor, waits for it to hand back.
+     */
+    private CompletableFuture<ParkingSpot> install(ParkingSpot spot, int index, VehicleManager manager) {
+        FloorEventLoop loop = eventLoop;
+        if (loop != null) {
+            return loop.detached().thenCompose(stopped -> install(spot, index, manager));
+        }
+        try {
+            enterMaintenance("install a spot");
+        } catch (IllegalStateException e) {
+            return install(spot, index, manager); // A loop took over just now; wait for it
+        }
+        boolean reenable = spot.isDisabled();
+        try {
+            spot.placeOn(this, index >= 0 ? index : nextSpotIndex.getAndIncrement());
+            index(spot);
             manager.addSpot(spot);
-        } else if (spot instanceof LargeSpot) {
-            vehicleManagers.get(VehicleType.TRUCK).addSpot(spot);
+            if (reenable) {
+                manager.enableSpot(spot);
+            }
+        } finally {
+            exitAll();
         }
+        for (ParkingEventListener listener : listeners) {
+            listener.onSpotAdded(this, spot);
+            if (reenable) {
+                listener.onSpotEnabled(this, spot);
+            }
+        }
+        serveWaiters();
         refreshDisplay();
+        return CompletableFuture.completedFuture(spot);
+    }
+
+    /**
+     * Stop accepting vehicles on this floor; the future completes when every spot is empty
+     */
+    public CompletableFuture<Void> drain() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        List<ParkingSpot> disabled = new ArrayList<>();
+        enterMaintenance("drain");
+        try {
+            for (VehicleManager manager : getDistinctManagers()) {
+                pending.add(manager.disableAllSpots());
+                disabled.addAll(manager.getSpots());
+            }
+        } finally {
+            exitAll();
+        }
+        for (ParkingSpot spot : disabled) {
+            fireSpotDisabled(spot);
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Find the spot at the given index on this floor, or null
+     */
+    public ParkingSpot findSpot(int index) {
+        ParkingSpot[] table = spotsByIndex;
+        return index >= 0 && index < table.length ? table[index] : null;
+    }
+
+    private void index(ParkingSpot spot) {
+        index(Collections.singletonList(spot), spot.getIndex() + 1);
     }
 
     /**
-     * Park a vehicle (only locks the specific vehicle type manager)
+     * Index spots whose indexes are all below {@code limit}, growing the table at most once
+     */
+    private void index(List<ParkingSpot> spots, int limit) {
+        synchronized (indexLock) {
+            ParkingSpot[] table = spotsByIndex;
+            if (limit > table.length) {
+                table = Arrays.copyOf(table, Math.max(limit, table.length * 2));
+            }
+            for (ParkingSpot spot : spots) {
+                table[spot.getIndex()] = spot;
+            }
+            spotsByIndex = table;
+        }
+    }
+
+    private void unindex(ParkingSpot spot) {
+        synchronized (indexLock) {
+            ParkingSpot[] table = spotsByIndex;
+            int index = spot.getIndex();
+            if (index < table.length && table[index] == spot) {
+                table[index] = null;
+                spotsByIndex = table;
+            }
+        }
+    }
+
+    /**
+     * Park a vehicle (only locks the specific vehicle type manager).
+     * Vehicles of the same type already queued for a spot are served first.
      */
     public ParkingTicket parkVehicle(Vehicle vehicle) {
         VehicleManager manager = getManagerForVehicle(vehicle);
-        if (manager == null || !manager.hasAvailableSpot()) {
+        if (manager == null) {
             return null;
         }
-        return manager.parkVehicle(vehicle, UUID.randomUUID().toString());
+        while (!enter(manager)) {
+            FloorEventLoop loop = eventLoop;
+            CompletableFuture<ParkingTicket> parked = loop == null ? null : loop.tryPark(vehicle);
+            if (parked != null) {
+                return await(parked);
+            }
+            if (loop != null) {
+                loop.awaitDetached(); // Stopping: carry on in locked mode once it has handed back
+            }
+        }
+        List<SpotWaitQueue.Waiter> served = Collections.emptyList();
+        ParkingTicket ticket = null;
+        try {
+            // Lock-free fast fail: a full floor never touches the manager lock
+            if (manager.getAvailableSpotsCount(vehicle.getType()) > 0) {
+                SpotWaitQueue queue = waitQueue;
+                if (queue != null && queue.getWaitingCount(vehicle.getType()) > 0) {
+                    // Don't let a drive-up overtake the queue: hand free spots to waiters first
+                    served = manager.serveWaiters();
+                }
+                if (manager.getAvailableSpotsCount(vehicle.getType()) > 0) {
+                    ticket = manager.parkVehicle(vehicle, TicketIds.next());
+                }
+            }
+        } finally {
+            exit(manager);
+        }
+        handOver(served);
+        if (ticket != null) {
+            firePark(ticket);
+        }
+        return ticket;
     }
 
     /**
      * Release a parked vehicle (only locks the specific vehicle type manager)
+     *
+     * @return false if the ticket had already been released
+     * @throws IllegalArgumentException if the ticket's spot is not on this floor
      */
-    public void releaseVehicle(ParkingTicket ticket) {
+    public boolean releaseVehicle(ParkingTicket ticket) {
+        if (ticket.getSpot().getFloor() != this) {
+            throw new IllegalArgumentException("Ticket " + ticket.getTicketId() + " is not for floor " + name);
+        }
         VehicleManager manager = getManagerForVehicle(ticket.getVehicle());
-        if (manager != null) {
-            manager.releaseVehicle(ticket);
+        if (manager == null) {
+            return ticket.markExited();
+        }
+        while (!enter(manager)) {
+            FloorEventLoop loop = eventLoop;
+            CompletableFuture<ParkingTicket> released = loop == null ? null : loop.tryRelease(ticket);
+            if (released != null) {
+                return await(released) != null;
+            }
+            if (loop != null) {
+                loop.awaitDetached();
+            }
         }
+        List<SpotWaitQueue.Waiter> handedOver;
+        try {
+            // Null when another release of the same ticket got there first. Checked by the
+            // manager under its lock: the ticket may already read exited while its spot is still taken
+            handedOver = manager.releaseVehicle(ticket);
+        } finally {
+            exit(manager);
+        }
+        if (handedOver == null) {
+            return false;
+        }
+        fireRelease(ticket);
+        handOver(handedOver);
         refreshDisplay();
+        return true;
+    }
+
+    /**
+     * Park without blocking the caller. Goes through the floor's event loop when
+     * one is running, otherwise parks on the calling thread.
+     */
+    public CompletableFuture<ParkingTicket> parkAsync(Vehicle vehicle) {
+        FloorEventLoop loop = eventLoop;
+        CompletableFuture<ParkingTicket> parked = loop == null ? null : loop.tryPark(vehicle);
+        if (parked != null) {
+            return parked;
+        }
+        return loop == null ? CompletableFuture.completedFuture(parkVehicle(vehicle))
+                : loop.detached().thenApply(stopped -> parkVehicle(vehicle));
+    }
+
+    /**
+     * Release without blocking the caller; completes with the ticket once the spot
+     * is freed, or with null if the ticket had already been released
+     */
+    public CompletableFuture<ParkingTicket> releaseAsync(ParkingTicket ticket) {
+        FloorEventLoop loop = eventLoop;
+        CompletableFuture<ParkingTicket> released = loop == null ? null : loop.tryRelease(ticket);
+        if (released != null) {
+            return released;
+        }
+        return loop == null ? CompletableFuture.completedFuture(releaseVehicle(ticket) ? ticket : null)
+                : loop.detached().thenApply(stopped -> releaseVehicle(ticket) ? ticket : null);
+    }
+
+    /**
+     * The event loop currently owning this floor, or null in locked mode
+     */
+    public FloorEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    /**
+     * Hand the floor to an event loop. Returns once every locked-mode call that
+     * started before the switch has finished, so the managers' spots are settled
+     * and the loop can take its copy of them.
+     */
+    synchronized void attachEventLoop(FloorEventLoop loop) {
+        if (eventLoop != null) {
+            throw new IllegalStateException("Floor " + name + " already has an event loop");
+        }
+        eventLoop = loop;
+        for (AtomicInteger calls : inFlight.values()) {
+            while (calls.get() != 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    synchronized void detachEventLoop(FloorEventLoop loop) {
+        if (eventLoop == loop) {
+            // The loop changed spots behind the managers' backs; fix the counters
+            // before locked-mode calls can read them
+            for (VehicleManager manager : getDistinctManagers()) {
+                manager.recount();
+            }
+            eventLoop = null;
+            serveWaiters();
+        }
+    }
+
+    /**
+     * Give free spots on this floor to queued vehicles. While an event loop owns
+     * the floor the request is queued on the loop and this returns without waiting.
+     */
+    public void serveWaiters() {
+        FloorEventLoop loop = eventLoop;
+        if (loop != null && loop.tryServeWaiters()) {
+            return;
+        }
+        List<SpotWaitQueue.Waiter> served = new ArrayList<>();
+        for (VehicleManager manager : getDistinctManagers()) {
+            if (!enter(manager)) {
+                break;
+            }
+            try {
+                served.addAll(manager.serveWaiters());
+            } finally {
+                exit(manager);
+            }
+        }
+        handOver(served);
+    }
+
+    /**
+     * Announce the parks of waiters that were handed a spot, then let each of
+     * them go. Delivering first would let a driver pay and exit before listeners
+     * had seen it park.
+     */
+    void handOver(List<SpotWaitQueue.Waiter> served) {
+        for (SpotWaitQueue.Waiter waiter : served) {
+            try {
+                firePark(waiter.getTicket());
+            } finally {
+                waiter.deliver();
+            }
+        }
+    }
+
+    /**
+     * Share the lot's queue of waiting vehicles with every manager on this floor
+     */
+    public void setWaitQueue(SpotWaitQueue waitQueue) {
+        this.waitQueue = waitQueue;
+        for (VehicleManager manager : getDistinctManagers()) {
+            manager.setWaitQueue(waitQueue);
+        }
+    }
+
+    SpotWaitQueue getWaitQueue() {
+        return waitQueue;
+    }
+
+    /**
+     * Clock for the tickets issued on this floor
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        this.timeSource = timeSource;
+        for (VehicleManager manager : getDistinctManagers()) {
+            manager.setTimeSource(timeSource);
+        }
+    }
+
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * Free spots that can take the given vehicle type, counted without locking
+     */
+    public int getAvailableSpotsCount(VehicleType type) {
+        FloorEventLoop loop = eventLoop;
+        if (loop != null) {
+            return loop.getSnapshot().getAvailableCount(type);
+        }
+        VehicleManager manager = vehicleManagers.get(type);
+        return manager == null ? 0 : manager.getAvailableSpotsCount(type);
+    }
+
+    /**
+     * Register a listener for park / release events on this floor
+     */
+    public void addListener(ParkingEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ParkingEventListener listener) {
+        listeners.remove(listener);
     }
 
     @Deprecated
@@ -79,7 +540,13 @@ public class ParkingFloor {
         // Legacy method for backward compatibility
         VehicleManager manager = vehicleManagers.get(type);
         if (manager != null && manager.hasAvailableSpot()) {
-            ParkingTicket ticket = manager.parkVehicle(new Vehicle("TEMP", type), UUID.randomUUID().toString());
+            ParkingTicket ticket;
+            enterMaintenance("take a spot directly");
+            try {
+                ticket = manager.parkVehicle(new Vehicle("TEMP", type), TicketIds.next());
+            } finally {
+                exitAll();
+            }
             if (ticket != null) {
                 return ticket.getSpot();
             }
@@ -99,12 +566,107 @@ public class ParkingFloor {
 
     public void showDisplay() {
         System.out.println("\n=== " + name + " Status ===");
-        for (VehicleManager manager : vehicleManagers.values()) {
+        for (VehicleManager manager : getDistinctManagers()) {
             manager.displayStatus();
         }
         System.out.println("=======================\n");
     }
 
+    void firePark(ParkingTicket ticket) {
+        for (ParkingEventListener listener : listeners) {
+            listener.onPark(this, ticket);
+        }
+    }
+
+    private void fireSpotDisabled(ParkingSpot spot) {
+        for (ParkingEventListener listener : listeners) {
+            listener.onSpotDisabled(this, spot);
+        }
+    }
+
+    void fireRelease(ParkingTicket ticket) {
+        for (ParkingEventListener listener : listeners) {
+            listener.onRelease(this, ticket);
+        }
+    }
+
+    /**
+     * Start a locked-mode call on a manager. Returns false, having backed out,
+     * if an event loop owns the floor; otherwise the caller must {@link #exit} it.
+     */
+    private boolean enter(VehicleManager manager) {
+        AtomicInteger calls = inFlight.get(manager);
+        calls.incrementAndGet();
+        if (eventLoop == null) {
+            return true;
+        }
+        calls.decrementAndGet();
+        return false;
+    }
+
+    private void exit(VehicleManager manager) {
+        inFlight.get(manager).decrementAndGet();
+    }
+
+    /**
+     * Enter every manager for a maintenance operation, which the event loop does not serve
+     */
+    private void enterMaintenance(String operation) {
+        List<VehicleManager> entered = new ArrayList<>();
+        for (VehicleManager manager : getDistinctManagers()) {
+            if (!enter(manager)) {
+                for (VehicleManager held : entered) {
+                    exit(held);
+                }
+                throw new IllegalStateException("Cannot " + operation + " on floor " + name
+                        + " while its event loop is running; stop the loop first");
+            }
+            entered.add(manager);
+        }
+    }
+
+    private void exitAll() {
+        for (VehicleManager manager : getDistinctManagers()) {
+            exit(manager);
+        }
+    }
+
+    /**
+     * Wait for an event-loop result, rethrowing a command failure as thrown
+     */
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Determine which manager should handle a spot
+     */
+    private VehicleManager getManagerForSpot(ParkingSpot spot) {
+        if (spot instanceof MotorcycleSpot) {
+            return vehicleManagers.get(VehicleType.MOTORCYCLE);
+        } else if (spot instanceof CompactSpot || spot instanceof ElectricSpot) {
+            return vehicleManagers.get(VehicleType.CAR);
+        } else if (spot instanceof LargeSpot) {
+            return vehicleManagers.get(VehicleType.TRUCK);
+        }
+        return null;
+    }
+
+    private VehicleManager requireManagerForSpot(ParkingSpot spot) {
+        VehicleManager manager = getManagerForSpot(spot);
+        if (manager == null) {
+            throw new IllegalArgumentException("No manager handles spot type " + spot.getSpotType());
+        }
+        return manager;
+    }
+
     /**
      * Get the appropriate manager for a vehicle
      */
@@ -116,7 +678,32 @@ public class ParkingFloor {
         return name;
     }
 
+    /**
+     * Numeric id assigned by the lot this floor belongs to, or -1 if it has not been added to one
+     */
+    public int getId() {
+        return id;
+    }
+
+    void assignId(int id) {
+        this.id = id;
+    }
+
     public Map<VehicleType, VehicleManager> getManagers() {
         return vehicleManagers;
     }
+
+    /**
+     * Each manager once, even when it serves several vehicle types
+     */
+    public Collection<VehicleManager> getDistinctManagers() {
+        Set<VehicleManager> managers = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<VehicleManager> ordered = new ArrayList<>();
+        for (VehicleManager manager : vehicleManagers.values()) {
+            if (managers.add(manager)) {
+                ordered.add(manager);
+            }
+        }
+        return ordered;
+    }
 }
@@ -1,19 +1,141 @@
 package models;
 
-import java.util.ArrayList;
+import helpers.TimeSource;
+import managers.SpotWaitQueue;
+import managers.VehicleManager;
+
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ParkingLot {
-    private final List<ParkingFloor> floors = new ArrayList<>();
+    private final List<ParkingFloor> floors = new CopyOnWriteArrayList<>();
     private final int capacity;
+    private final List<ParkingEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final SpotWaitQueue waitQueue = new SpotWaitQueue();
+    // Guards floor / listener registration only; parking never takes it
+    private final Object topologyLock = new Object();
+    // Floors draining for removal; guarded by topologyLock
+    private final Set<ParkingFloor> removing = new HashSet<>();
     private int occupied = 0;
+    private int nextFloorId = 0;
+    private TimeSource timeSource;
 
     public ParkingLot(int capacity) {
         this.capacity = capacity;
     }
 
     public void addFloor(ParkingFloor floor) {
-        floors.add(floor);
+        synchronized (topologyLock) {
+            if (floors.contains(floor)) {
+                throw new IllegalArgumentException("Floor " + floor.getName() + " is already part of this lot");
+            }
+            floor.assignId(nextFloorId++);
+            if (timeSource != null) {
+                floor.setTimeSource(timeSource);
+            }
+            floors.add(floor);
+            floor.setWaitQueue(waitQueue);
+            for (ParkingEventListener listener : listeners) {
+                floor.addListener(listener);
+                listener.onFloorAdded(floor);
+            }
+        }
+        floor.serveWaiters();
+    }
+
+    /**
+     * Take a floor out of service while traffic continues elsewhere.
+     * Its spots stop accepting vehicles immediately; once the last parked
+     * vehicle has left, the floor is detached from the lot. A floor can only be
+     * removed once; a second call while it drains is rejected.
+     */
+    public CompletableFuture<ParkingFloor> removeFloor(ParkingFloor floor) {
+        synchronized (topologyLock) {
+            if (!floors.contains(floor)) {
+                throw new IllegalArgumentException("Floor " + floor.getName() + " is not part of this lot");
+            }
+            if (!removing.add(floor)) {
+                throw new IllegalArgumentException("Floor " + floor.getName() + " is already being removed");
+            }
+        }
+        CompletableFuture<Void> drain;
+        try {
+            drain = floor.drain();
+        } catch (RuntimeException e) {
+            synchronized (topologyLock) {
+                removing.remove(floor);
+            }
+            throw e;
+        }
+        return drain.thenApply(drained -> {
+            synchronized (topologyLock) {
+                removing.remove(floor);
+                floors.remove(floor);
+                floor.setWaitQueue(null);
+                for (ParkingEventListener listener : listeners) {
+                    floor.removeListener(listener);
+                }
+            }
+            for (ParkingEventListener listener : listeners) {
+                listener.onFloorRemoved(floor);
+            }
+            return floor;
+        });
+    }
+
+    /**
+     * Register a listener on every current and future floor of the lot;
+     * it is told about the floors already here through {@link ParkingEventListener#onFloorAdded}
+     */
+    public void addListener(ParkingEventListener listener) {
+        synchronized (topologyLock) {
+            listeners.add(listener);
+            for (ParkingFloor floor : floors) {
+                floor.addListener(listener);
+                listener.onFloorAdded(floor);
+            }
+        }
+    }
+
+    /**
+     * Clock for tickets on every current and future floor and for wait-queue
+     * timeouts; floors keep their own otherwise
+     */
+    public void setTimeSource(TimeSource timeSource) {
+        synchronized (topologyLock) {
+            this.timeSource = timeSource;
+            waitQueue.setTimeSource(timeSource);
+            for (ParkingFloor floor : floors) {
+                floor.setTimeSource(timeSource);
+            }
+        }
+    }
+
+    /**
+     * Vehicles waiting for a spot anywhere in the lot
+     */
+    public SpotWaitQueue getWaitQueue() {
+        return waitQueue;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of spots actually installed across all floors
+     */
+    public int getTotalSpotsCount() {
+        int total = 0;
+        for (ParkingFloor floor : floors) {
+            for (VehicleManager manager : floor.getDistinctManagers()) {
+                total += manager.getTotalSpotsCount();
+            }
+        }
+        return total;
     }
 
     public boolean isFull() {
@@ -28,8 +150,19 @@ public class ParkingLot {
         occupied--;
     }
 
+    /**
+     * Find a floor by the id this lot assigned it, or null if it is not (or no longer) here
+     */
+    public ParkingFloor getFloor(int id) {
+        for (ParkingFloor floor : floors) {
+            if (floor.getId() == id) {
+                return floor;
+            }
+        }
+        return null;
+    }
+
     public List<ParkingFloor> getFloors() {
         return floors;
     }
 }
-
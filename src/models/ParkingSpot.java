@@ -3,17 +3,71 @@ package models;
 import enums.SpotType;
 import enums.VehicleType;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single bay. State changes are made by the owning manager under its lock, or
+ * by the floor's event loop while it owns the floor; the state fields are volatile
+ * so listeners and queries may read them without the lock.
+ */
 public abstract class ParkingSpot {
     private final SpotType spotType;
-    private boolean occupied;
+    private volatile boolean occupied;
+    private volatile boolean disabled;
+    // Bumped every time the spot is put back into service
+    private volatile int enableCount;
+    private volatile CompletableFuture<ParkingSpot> drained;
+    private volatile ParkingFloor floor;
+    private volatile int index = -1;
 
     protected ParkingSpot(SpotType spotType) {
         this.spotType = spotType;
         this.occupied = false;
     }
 
+    /**
+     * Create a spot of the given type
+     */
+    public static ParkingSpot of(SpotType type) {
+        switch (type) {
+            case COMPACT:
+                return new CompactSpot();
+            case ELECTRIC:
+                return new ElectricSpot();
+            case MOTORCYCLE:
+                return new MotorcycleSpot();
+            case LARGE:
+                return new LargeSpot();
+            default:
+                throw new IllegalArgumentException("No spot implementation for type " + type);
+        }
+    }
+
+    /**
+     * Whether {@link #of(SpotType)} can build a spot of this type
+     */
+    public static boolean isSupported(SpotType type) {
+        switch (type) {
+            case COMPACT:
+            case ELECTRIC:
+            case MOTORCYCLE:
+            case LARGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     public boolean isFree() {
-        return !occupied;
+        return !occupied && !disabled;
+    }
+
+    public boolean isOccupied() {
+        return occupied;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
     }
 
     public void occupy() {
@@ -22,11 +76,74 @@ public abstract class ParkingSpot {
 
     public void release() {
         this.occupied = false;
+        CompletableFuture<ParkingSpot> pending = drained;
+        if (pending != null) {
+            // Complete off the manager lock so dependent actions never run inside it
+            drained = null;
+            pending.completeAsync(() -> this);
+        }
+    }
+
+    /**
+     * Stop handing this spot out. The returned future completes once the spot
+     * is empty: immediately if it is free, otherwise when the parked vehicle leaves.
+     */
+    public CompletableFuture<ParkingSpot> disable() {
+        disabled = true;
+        if (!occupied) {
+            return CompletableFuture.completedFuture(this);
+        }
+        CompletableFuture<ParkingSpot> pending = drained;
+        if (pending == null) {
+            pending = new CompletableFuture<>();
+            drained = pending;
+        }
+        return pending;
+    }
+
+    /**
+     * Put the spot back into service, cancelling any pending drain
+     */
+    public void enable() {
+        disabled = false;
+        enableCount++;
+        CompletableFuture<ParkingSpot> pending = drained;
+        if (pending != null) {
+            drained = null;
+            pending.cancel(false);
+        }
+    }
+
+    /**
+     * Number of times the spot has been put back into service; a drain started
+     * before the last {@link #enable()} no longer applies
+     */
+    public int getEnableCount() {
+        return enableCount;
     }
 
     public SpotType getSpotType() {
         return spotType;
     }
 
+    /**
+     * Floor this spot was added to, or null if it has not been placed yet
+     */
+    public ParkingFloor getFloor() {
+        return floor;
+    }
+
+    /**
+     * Position of this spot within its floor, or -1 if it has not been placed yet
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void placeOn(ParkingFloor floor, int index) {
+        this.floor = floor;
+        this.index = index;
+    }
+
     public abstract boolean canFit(VehicleType vehicleType);
 }
@@ -1,35 +1,141 @@
 package models;
 
+import enums.PaymentMode;
 import enums.TicketStatus;
+import helpers.TimeSource;
 
-import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public class ParkingTicket {
+    private static final long HOUR_MILLIS = 3_600_000L;
+
     private final String ticketId;
     private final Vehicle vehicle;
     private final ParkingSpot spot;
-    private final LocalDateTime entryTime;
-    private TicketStatus status;
+    private final TimeSource clock;
+    private final long entryEpochMillis;
+    private volatile TicketStatus status;
+    private volatile boolean permitCovered;
+    private volatile double paidAmount;
+    private volatile PaymentMode paymentMode;
 
     public ParkingTicket(String ticketId, Vehicle vehicle, ParkingSpot spot) {
+        this(ticketId, vehicle, spot, TimeSource.defaultSource());
+    }
+
+    /**
+     * @param clock time source for the entry time and parked duration
+     */
+    public ParkingTicket(String ticketId, Vehicle vehicle, ParkingSpot spot, TimeSource clock) {
         this.ticketId = ticketId;
         this.vehicle = vehicle;
         this.spot = spot;
-        this.entryTime = LocalDateTime.now();
+        this.clock = clock;
+        this.entryEpochMillis = clock.currentTimeMillis();
         this.status = TicketStatus.ACTIVE;
     }
 
+    /**
+     * Hours parked so far, counting a started hour as a full one.
+     * Measured in epoch millis, so DST changes do not affect it.
+     */
     public long getParkedHours() {
-        return Duration.between(entryTime, LocalDateTime.now()).toHours() + 1;
+        return getParkedMillis() / HOUR_MILLIS + 1;
+    }
+
+    public long getParkedMillis() {
+        return Math.max(0, clock.currentTimeMillis() - entryEpochMillis);
+    }
+
+    public synchronized void markPaid() {
+        if (status == TicketStatus.ACTIVE) {
+            this.status = TicketStatus.PAID;
+        }
+    }
+
+    /**
+     * Record a payment of the given amount. Returns false, keeping the payment
+     * recorded first, if the ticket was already paid or closed.
+     */
+    public synchronized boolean markPaid(double amount, PaymentMode mode) {
+        if (status != TicketStatus.ACTIVE) {
+            return false;
+        }
+        this.paidAmount = amount;
+        this.paymentMode = mode;
+        this.status = TicketStatus.PAID;
+        return true;
+    }
+
+    /**
+     * Amount recorded when the ticket was paid; 0 if unpaid or settled by permit
+     */
+    public double getPaidAmount() {
+        return paidAmount;
+    }
+
+    /**
+     * How the ticket was paid; null if unpaid or settled without a payment, e.g. by permit
+     */
+    public PaymentMode getPaymentMode() {
+        return paymentMode;
     }
 
-    public void markPaid() {
+    /**
+     * Settle the ticket with a permit instead of a payment.
+     * Returns false if it was already paid or closed.
+     */
+    public synchronized boolean coverByPermit() {
+        if (status != TicketStatus.ACTIVE) {
+            return false;
+        }
+        this.permitCovered = true;
         this.status = TicketStatus.PAID;
+        return true;
+    }
+
+    public boolean isPermitCovered() {
+        return permitCovered;
+    }
+
+    /**
+     * Close the ticket. Returns false if it was already closed, so the spot is
+     * released exactly once however many times the exit is retried.
+     */
+    public synchronized boolean markExited() {
+        if (status == TicketStatus.EXITED) {
+            return false;
+        }
+        this.status = TicketStatus.EXITED;
+        return true;
     }
 
     public boolean isPaid() {
-        return status == TicketStatus.PAID;
+        return status != TicketStatus.ACTIVE;
+    }
+
+    public boolean isExited() {
+        return status == TicketStatus.EXITED;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    /**
+     * Entry time in the system time zone, e.g. for time-of-day pricing
+     */
+    public LocalDateTime getEntryTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(entryEpochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Entry time as epoch milliseconds, for fixed-width encodings
+     */
+    public long getEntryEpochMillis() {
+        return entryEpochMillis;
     }
 
     public ParkingSpot getSpot() {
@@ -0,0 +1,104 @@
+package permits;
+
+import enums.VehicleType;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * A plate's entitlement to park without paying: which vehicle types, which
+ * floors (all of them, or a set of floor ids) and for what period
+ */
+public class Permit {
+    /**
+     * Floor mask covering every floor, including ones added after the permit was issued
+     */
+    public static final long ALL_FLOORS = -1L;
+
+    private final String plate;
+    private final int vehicleTypeMask;
+    // null when the permit covers all floors; otherwise bit n of the set covers floor id n
+    private final long[] floorWords;
+    private final long validFromMillis;
+    private final long validUntilMillis;
+
+    /**
+     * @param floorMask        bit {@code n} set for each floor id {@code n} below 64, or {@link #ALL_FLOORS}
+     * @param validFromMillis  start of validity, inclusive, epoch millis
+     * @param validUntilMillis end of validity, exclusive, epoch millis
+     */
+    public Permit(String plate, Set<VehicleType> vehicleTypes, long floorMask,
+                  long validFromMillis, long validUntilMillis) {
+        this(plate, vehicleTypes, floorMask == ALL_FLOORS ? null : BitSet.valueOf(new long[]{floorMask}),
+                validFromMillis, validUntilMillis);
+    }
+
+    /**
+     * @param floorIds         ids of the floors covered, or null for all floors
+     * @param validFromMillis  start of validity, inclusive, epoch millis
+     * @param validUntilMillis end of validity, exclusive, epoch millis
+     */
+    public Permit(String plate, Set<VehicleType> vehicleTypes, BitSet floorIds,
+                  long validFromMillis, long validUntilMillis) {
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("Permit needs a plate");
+        }
+        if (vehicleTypes.isEmpty() || (floorIds != null && floorIds.isEmpty())) {
+            throw new IllegalArgumentException("Permit for " + plate + " covers no vehicle types or floors");
+        }
+        if (validUntilMillis <= validFromMillis) {
+            throw new IllegalArgumentException("Permit for " + plate + " ends before it starts");
+        }
+        int mask = 0;
+        for (VehicleType type : vehicleTypes) {
+            mask |= 1 << type.ordinal();
+        }
+        this.plate = plate;
+        this.vehicleTypeMask = mask;
+        this.floorWords = floorIds == null ? null : floorIds.toLongArray();
+        this.validFromMillis = validFromMillis;
+        this.validUntilMillis = validUntilMillis;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    public int getVehicleTypeMask() {
+        return vehicleTypeMask;
+    }
+
+    public boolean isAllFloors() {
+        return floorWords == null;
+    }
+
+    public boolean coversFloor(int floorId) {
+        return coversFloor(floorWords, floorId);
+    }
+
+    /**
+     * The covered floor ids as {@link BitSet} words, or null for all floors
+     */
+    long[] getFloorWords() {
+        return floorWords;
+    }
+
+    static boolean coversFloor(long[] floorWords, int floorId) {
+        if (floorId < 0) {
+            return false;
+        }
+        if (floorWords == null) {
+            return true;
+        }
+        int word = floorId >>> 6;
+        return word < floorWords.length && (floorWords[word] & (1L << floorId)) != 0;
+    }
+
+    public long getValidFromMillis() {
+        return validFromMillis;
+    }
+
+    public long getValidUntilMillis() {
+        return validUntilMillis;
+    }
+}
@@ -0,0 +1,140 @@
+package permits;
+
+import enums.VehicleType;
+import models.ParkingFloor;
+import models.ParkingLot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parser for permit lists, one permit per line ({@code #} starts a comment):
+ * <pre>
+ * permit KA01AB1234 from=2026-10-01 until=2026-10-31                  # any floor, any type
+ * permit MH12XY9876 types=CAR,ELECTRIC floors=F1,F2 from=2026-10-01 until=2026-12-31
+ * </pre>
+ * Dates are inclusive and read in the lot's time zone. Floor names are resolved
+ * to the ids the lot has assigned, so the lot's floors must already be added.
+ */
+public final class PermitList {
+    private PermitList() {
+    }
+
+    public static List<Permit> parse(Reader source, ParkingLot lot, ZoneId zone) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader
+                ? (BufferedReader) source : new BufferedReader(source);
+        List<Permit> permits = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            if (!tokens[0].equals("permit")) {
+                throw error(lineNumber, "unknown directive '" + tokens[0] + "'");
+            }
+            if (tokens.length < 2) {
+                throw error(lineNumber, "expected a plate after 'permit'");
+            }
+            permits.add(parsePermit(tokens, lot, zone, lineNumber));
+        }
+        return permits;
+    }
+
+    private static Permit parsePermit(String[] tokens, ParkingLot lot, ZoneId zone, int lineNumber) {
+        Set<VehicleType> types = EnumSet.allOf(VehicleType.class);
+        BitSet floors = null;
+        LocalDate from = null;
+        LocalDate until = null;
+        for (int i = 2; i < tokens.length; i++) {
+            int eq = tokens[i].indexOf('=');
+            if (eq <= 0 || eq == tokens[i].length() - 1) {
+                throw error(lineNumber, "expected key=value, got '" + tokens[i] + "'");
+            }
+            String key = tokens[i].substring(0, eq);
+            String value = tokens[i].substring(eq + 1);
+            switch (key) {
+                case "types":
+                    types = parseTypes(value, lineNumber);
+                    break;
+                case "floors":
+                    floors = parseFloors(value, lot, lineNumber);
+                    break;
+                case "from":
+                    from = parseDate(value, lineNumber);
+                    break;
+                case "until":
+                    until = parseDate(value, lineNumber);
+                    break;
+                default:
+                    throw error(lineNumber, "unknown permit attribute '" + key + "'");
+            }
+        }
+        if (from == null || until == null) {
+            throw error(lineNumber, "permit " + tokens[1] + " needs from=<date> and until=<date>");
+        }
+        long fromMillis = from.atStartOfDay(zone).toInstant().toEpochMilli();
+        long untilMillis = until.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        try {
+            return new Permit(tokens[1], types, floors, fromMillis, untilMillis);
+        } catch (IllegalArgumentException e) {
+            throw error(lineNumber, e.getMessage());
+        }
+    }
+
+    private static Set<VehicleType> parseTypes(String value, int lineNumber) {
+        Set<VehicleType> types = EnumSet.noneOf(VehicleType.class);
+        for (String name : value.split(",")) {
+            try {
+                types.add(VehicleType.valueOf(name.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw error(lineNumber, "unknown vehicle type '" + name + "'");
+            }
+        }
+        return types;
+    }
+
+    private static BitSet parseFloors(String value, ParkingLot lot, int lineNumber) {
+        BitSet floors = new BitSet();
+        for (String name : value.split(",")) {
+            ParkingFloor match = null;
+            for (ParkingFloor floor : lot.getFloors()) {
+                if (floor.getName().equals(name)) {
+                    match = floor;
+                }
+            }
+            if (match == null) {
+                throw error(lineNumber, "unknown floor " + name);
+            }
+            floors.set(match.getId());
+        }
+        return floors;
+    }
+
+    private static LocalDate parseDate(String value, int lineNumber) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw error(lineNumber, "not a date: " + value);
+        }
+    }
+
+    private static IllegalArgumentException error(int lineNumber, String message) {
+        return new IllegalArgumentException("Permit line " + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,88 @@
+package permits;
+
+import enums.VehicleType;
+import helpers.TimeSource;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingTicket;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Permit holders for one lot.
+ *
+ * Checks read the current {@link PermitTable} through a volatile field and take
+ * no lock. A reload builds a complete new table off to the side and swaps it in
+ * with a single write, so every check sees either the old list or the new one.
+ */
+public class PermitRegistry {
+    private final ParkingLot lot;
+    private final TimeSource clock;
+    private volatile PermitTable table = PermitTable.EMPTY;
+    private volatile long reloads;
+
+    public PermitRegistry(ParkingLot lot) {
+        this(lot, TimeSource.defaultSource());
+    }
+
+    public PermitRegistry(ParkingLot lot, TimeSource clock) {
+        this.lot = lot;
+        this.clock = clock;
+    }
+
+    /**
+     * Replace the whole permit list
+     */
+    public void reload(Collection<Permit> permits) {
+        PermitTable next = new PermitTable(permits);
+        synchronized (this) {
+            table = next;
+            reloads++;
+        }
+    }
+
+    /**
+     * Replace the permit list from a file in {@link PermitList} format.
+     * A malformed file leaves the current list in place.
+     *
+     * @return number of permits loaded
+     */
+    public int reload(Path file) throws IOException {
+        List<Permit> permits;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            permits = PermitList.parse(reader, lot, ZoneId.systemDefault());
+        }
+        reload(permits);
+        return permits.size();
+    }
+
+    /**
+     * Whether the plate may park on the floor with this vehicle type right now
+     */
+    public boolean isEntitled(CharSequence plate, int floorId, VehicleType type) {
+        return table.isEntitled(plate, floorId, type, clock.currentTimeMillis());
+    }
+
+    /**
+     * Whether the ticket's vehicle holds a valid permit for the floor it parked on
+     */
+    public boolean isEntitled(ParkingTicket ticket) {
+        ParkingFloor floor = ticket.getSpot().getFloor();
+        return floor != null
+                && isEntitled(ticket.getVehicle().getNumber(), floor.getId(), ticket.getVehicle().getType());
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public long getReloadCount() {
+        return reloads;
+    }
+}
@@ -0,0 +1,105 @@
+package permits;
+
+import enums.VehicleType;
+
+import java.util.Collection;
+
+/**
+ * Immutable open-addressing table of permits keyed by plate.
+ *
+ * Plates hash to 64-bit keys stored in a flat {@code long[]} at a load factor
+ * of at most one half, so a lookup is a hash of the plate, usually one or two
+ * probes into primitive arrays and one string comparison on a key match. It
+ * allocates nothing and, being immutable, needs no lock. A plate may hold
+ * several permits (e.g. overlapping renewals); lookups check each of them.
+ * Floors are a wildcard or a bitset of floor ids of any size.
+ */
+public final class PermitTable {
+    static final PermitTable EMPTY = new PermitTable(new Permit[0]);
+
+    private final int mask;
+    private final long[] keys;
+    private final String[] plates;
+    private final int[] vehicleTypeMasks;
+    // Per slot: floors 0-63 inline (all bits set for an all-floors permit), and the
+    // permit's full floor bitset, null for all floors, read only for higher floor ids
+    private final long[] lowFloors;
+    private final long[][] floorWords;
+    private final long[] validFrom;
+    private final long[] validUntil;
+    private final int size;
+
+    public PermitTable(Collection<Permit> permits) {
+        this(permits.toArray(new Permit[0]));
+    }
+
+    private PermitTable(Permit[] permits) {
+        int capacity = Integer.highestOneBit(Math.max(2, permits.length) * 2 - 1) << 1;
+        this.mask = capacity - 1;
+        this.keys = new long[capacity];
+        this.plates = new String[capacity];
+        this.vehicleTypeMasks = new int[capacity];
+        this.lowFloors = new long[capacity];
+        this.floorWords = new long[capacity][];
+        this.validFrom = new long[capacity];
+        this.validUntil = new long[capacity];
+        this.size = permits.length;
+        for (Permit permit : permits) {
+            long key = hash(permit.getPlate());
+            int slot = (int) key & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            plates[slot] = permit.getPlate();
+            vehicleTypeMasks[slot] = permit.getVehicleTypeMask();
+            long[] words = permit.getFloorWords();
+            lowFloors[slot] = words == null ? Permit.ALL_FLOORS : words.length == 0 ? 0 : words[0];
+            floorWords[slot] = words;
+            validFrom[slot] = permit.getValidFromMillis();
+            validUntil[slot] = permit.getValidUntilMillis();
+        }
+    }
+
+    /**
+     * Whether the plate holds a permit covering this floor and vehicle type at the given time
+     */
+    public boolean isEntitled(CharSequence plate, int floorId, VehicleType type, long nowMillis) {
+        if (floorId < 0) {
+            return false;
+        }
+        int typeBit = 1 << type.ordinal();
+        long key = hash(plate);
+        for (int slot = (int) key & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key
+                    && (floorId < 64 ? (lowFloors[slot] & (1L << floorId)) != 0
+                            : Permit.coversFloor(floorWords[slot], floorId))
+                    && (vehicleTypeMasks[slot] & typeBit) != 0
+                    && nowMillis >= validFrom[slot] && nowMillis < validUntil[slot]
+                    && plates[slot].contentEquals(plate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * FNV-1a over the plate's characters with a final avalanche mix; never 0,
+     * which marks an empty slot
+     */
+    private static long hash(CharSequence plate) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < plate.length(); i++) {
+            h ^= plate.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
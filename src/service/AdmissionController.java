@@ -0,0 +1,135 @@
+package service;
+
+import enums.VehicleType;
+import helpers.TicketIds;
+import managers.SpotWaitQueue;
+import models.EntryPanel;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingTicket;
+import models.Vehicle;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the lot.
+ *
+ * Fullness is read from the managers' lock-free free-spot counters, so a full
+ * lot turns arrivals away without touching any manager lock. Vehicles that are
+ * willing to wait join the lot's FIFO {@link SpotWaitQueue}; a released spot is
+ * then handed straight to the longest-waiting vehicle that fits, and new
+ * arrivals never barge past vehicles already queued for their type.
+ *
+ * Every vehicle is admitted through the {@link EntryPanel} it arrived at, which
+ * reports it to the gate's listeners once: on entry when it gets a spot, or as
+ * rejected when it is turned away or its wait times out.
+ */
+public class AdmissionController {
+    private final ParkingLot lot;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder fastRejections = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public AdmissionController(ParkingLot lot) {
+        this.lot = lot;
+    }
+
+    /**
+     * Whether no floor has a free spot for the type, read without locking
+     */
+    public boolean isFull(VehicleType type) {
+        for (ParkingFloor floor : lot.getFloors()) {
+            if (floor.getAvailableSpotsCount(type) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Park immediately or return null. Fails fast when the lot is full for the
+     * type or other vehicles of that type are already waiting. The gate's own
+     * floor, if it has one, is tried first.
+     */
+    public ParkingTicket tryAdmit(Vehicle vehicle, EntryPanel gate) {
+        if (lot.getWaitQueue().getWaitingCount(vehicle.getType()) > 0 || isFull(vehicle.getType())) {
+            fastRejections.increment();
+            return gate.recordEntry(vehicle, null);
+        }
+        ParkingTicket ticket = park(vehicle, gate.getFloor());
+        if (ticket == null) {
+            fastRejections.increment();
+        } else {
+            admitted.increment();
+        }
+        return gate.recordEntry(vehicle, ticket);
+    }
+
+    /**
+     * Park now if possible, otherwise wait in line for up to {@code timeout}.
+     * The future completes with the ticket, or with null if the wait timed out.
+     */
+    public CompletableFuture<ParkingTicket> admit(Vehicle vehicle, EntryPanel gate, Duration timeout) {
+        if (lot.getWaitQueue().getWaitingCount(vehicle.getType()) == 0) {
+            ParkingTicket ticket = park(vehicle, gate.getFloor());
+            if (ticket != null) {
+                admitted.increment();
+                return CompletableFuture.completedFuture(gate.recordEntry(vehicle, ticket));
+            }
+        }
+        queued.increment();
+        SpotWaitQueue.Waiter waiter = lot.getWaitQueue()
+                .enqueue(vehicle, TicketIds.next(), timeout.toMillis());
+        // A spot freed between the failed park and the enqueue saw no waiter; claim it now
+        for (ParkingFloor floor : lot.getFloors()) {
+            if (!waiter.getFuture().isDone() && floor.getAvailableSpotsCount(vehicle.getType()) > 0) {
+                floor.serveWaiters();
+            }
+        }
+        return waiter.getFuture().thenApply(ticket -> {
+            if (ticket == null) {
+                timedOut.increment();
+            } else {
+                admitted.increment();
+            }
+            return gate.recordEntry(vehicle, ticket);
+        });
+    }
+
+    private ParkingTicket park(Vehicle vehicle, ParkingFloor preferredFloor) {
+        if (preferredFloor != null) {
+            ParkingTicket ticket = preferredFloor.parkVehicle(vehicle);
+            if (ticket != null) {
+                return ticket;
+            }
+        }
+        for (ParkingFloor floor : lot.getFloors()) {
+            if (floor != preferredFloor) {
+                ParkingTicket ticket = floor.parkVehicle(vehicle);
+                if (ticket != null) {
+                    return ticket;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getFastRejectionCount() {
+        return fastRejections.sum();
+    }
+
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+}
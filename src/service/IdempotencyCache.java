@@ -0,0 +1,148 @@
+package service;
+
+import helpers.TimeSource;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-expiring cache of operation results keyed by a client request id.
+ *
+ * The first call for a key runs the operation; every retry within the TTL
+ * gets the same result back without running it again. A retry that arrives
+ * while the original is still in flight waits for it instead of racing it.
+ * If the operation throws or returns null (e.g. no spot was free), the key is
+ * forgotten so the caller may retry; callers already waiting on it share that
+ * outcome.
+ *
+ * Keys are evicted in insertion order once they expire or the cache exceeds
+ * {@code maxEntries}; lookups never take a lock of their own.
+ */
+public class IdempotencyCache<V> {
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final TimeSource clock;
+
+    public IdempotencyCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, TimeSource.defaultSource());
+    }
+
+    /**
+     * @param clock time source the TTL is measured against
+     */
+    public IdempotencyCache(int maxEntries, Duration ttl, TimeSource clock) {
+        if (maxEntries <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Invalid idempotency cache configuration");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Run {@code operation} once per live request id and return its result
+     */
+    public V execute(String requestId, Supplier<V> operation) {
+        long now = now();
+        Entry<V> created = new Entry<>(requestId, now);
+        while (true) {
+            Entry<V> existing = entries.get(requestId);
+            if (existing != null && !existing.isExpired(now, ttlMillis)) {
+                return await(existing);
+            }
+            if (existing == null) {
+                existing = entries.putIfAbsent(requestId, created);
+                if (existing == null) {
+                    break;
+                }
+            } else if (entries.replace(requestId, existing, created)) {
+                break;
+            }
+            // Lost the race to another caller or to eviction; look again
+        }
+        insertionOrder.add(created);
+        size.incrementAndGet();
+        evict(now);
+
+        V result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            entries.remove(requestId, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+        if (result == null) {
+            // Nothing happened that a retry could repeat, so let it run again
+            entries.remove(requestId, created);
+        }
+        created.result.complete(result);
+        return result;
+    }
+
+    /**
+     * Result previously recorded for a request id, or null if unknown or expired
+     */
+    public V peek(String requestId) {
+        Entry<V> entry = entries.get(requestId);
+        if (entry == null || entry.isExpired(now(), ttlMillis) || !entry.result.isDone()
+                || entry.result.isCompletedExceptionally()) {
+            return null;
+        }
+        return entry.result.join();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Entry<V> oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (size.get() > maxEntries || oldest.isExpired(now, ttlMillis))) {
+            if (insertionOrder.remove(oldest)) {
+                size.decrementAndGet();
+                entries.remove(oldest.requestId, oldest);
+            }
+        }
+    }
+
+    private static <V> V await(Entry<V> entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private long now() {
+        return clock.currentTimeMillis();
+    }
+
+    private static final class Entry<V> {
+        final String requestId;
+        final long createdAt;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Entry(String requestId, long createdAt) {
+            this.requestId = requestId;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long ttlMillis) {
+            return now - createdAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package service;
+
+import helpers.TimeSource;
+import models.GateListener;
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingTicket;
+import models.Vehicle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window occupancy and arrival-rate tracker driving the surge multiplier.
+ * Register it on the lot for occupancy and on the entry gates for arrivals: every
+ * vehicle presenting itself at a gate counts, including those turned away.
+ *
+ * The window is a ring of fixed-width time buckets. Park, release and gate events
+ * only add to {@link LongAdder}s in the current bucket and never take a lock: a
+ * level change made {@code r} millis before the bucket ends adds {@code delta * r}
+ * spot-millis to it. Once per bucket the first event past its end closes it out
+ * under a short lock and starts the next bucket with the totals of the buckets
+ * before it, so windowed aggregates stay O(1) per event. The resulting multiplier
+ * is published through a volatile field, so {@link #getSurgeMultiplier()} never
+ * takes a lock.
+ *
+ * Closing a bucket seals it and waits for events already adding to it before
+ * summing, so nothing is lost: an event that finds its bucket sealed is added to
+ * the next one instead, counted from that bucket's start. The occupied count is
+ * never clamped: a release seen without its park, e.g. for a vehicle parked
+ * before the tracker was registered, shows up as drift rather than being hidden.
+ */
+public class OccupancyTracker implements ParkingEventListener, GateListener {
+    private static final long DEFAULT_WINDOW_MILLIS = 15 * 60 * 1000L;
+    private static final int DEFAULT_BUCKETS = 15;
+
+    // Only taken to close out a bucket, never on the event path otherwise
+    private final Object rotationLock = new Object();
+    private final int capacity;
+    private final int buckets;
+    private final long bucketMillis;
+    private final double surgeThreshold;
+    private final double maxSurge;
+    private final TimeSource clock;
+    private final LongAdder occupied = new LongAdder();
+
+    // Closed buckets still in the window, oldest overwritten first; guarded by rotationLock
+    private final long[] closedOccupancyMillis;
+    private final long[] closedArrivals;
+    private int oldestClosed;
+    private long closedOccupancyTotal;
+    private long closedArrivalsTotal;
+
+    private volatile Bucket current;
+    private volatile double surgeMultiplier = 1.0;
+
+    public OccupancyTracker(int capacity) {
+        this(capacity, TimeSource.defaultSource());
+    }
+
+    public OccupancyTracker(int capacity, TimeSource clock) {
+        this(capacity, DEFAULT_WINDOW_MILLIS, DEFAULT_BUCKETS, 0.7, 2.0, clock);
+    }
+
+    /**
+     * @param capacity       total number of spots being tracked
+     * @param windowMillis   length of the sliding window
+     * @param buckets        number of buckets the window is split into
+     * @param surgeThreshold demand level (0..1) above which surge pricing starts
+     * @param maxSurge       multiplier applied once demand reaches 1.0
+     */
+    public OccupancyTracker(int capacity, long windowMillis, int buckets,
+                            double surgeThreshold, double maxSurge) {
+        this(capacity, windowMillis, buckets, surgeThreshold, maxSurge, TimeSource.defaultSource());
+    }
+
+    public OccupancyTracker(int capacity, long windowMillis, int buckets,
+                            double surgeThreshold, double maxSurge, TimeSource clock) {
+        if (capacity <= 0 || buckets <= 0 || windowMillis < buckets) {
+            throw new IllegalArgumentException("Invalid occupancy window configuration");
+        }
+        if (surgeThreshold < 0 || surgeThreshold >= 1 || maxSurge < 1) {
+            throw new IllegalArgumentException("Invalid surge configuration");
+        }
+        this.capacity = capacity;
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+        this.closedOccupancyMillis = new long[buckets - 1];
+        this.closedArrivals = new long[buckets - 1];
+        this.surgeThreshold = surgeThreshold;
+        this.maxSurge = maxSurge;
+        this.clock = clock;
+        this.current = new Bucket(now(), 0, 0, 0);
+    }
+
+    @Override
+    public void onPark(ParkingFloor floor, ParkingTicket ticket) {
+        record(1, false);
+    }
+
+    @Override
+    public void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+        record(-1, false);
+    }
+
+    @Override
+    public void onEntry(String gateId, ParkingTicket ticket) {
+        record(0, true);
+    }
+
+    @Override
+    public void onEntryRejected(String gateId, Vehicle vehicle) {
+        record(0, true);
+    }
+
+    /**
+     * Roll the window forward without an event, e.g. from a periodic timer,
+     * so the multiplier decays while the lot is quiet
+     */
+    public void refresh() {
+        record(0, false);
+    }
+
+    /**
+     * Current surge multiplier, read without locking
+     */
+    public double getSurgeMultiplier() {
+        return surgeMultiplier;
+    }
+
+    /**
+     * Vehicles parked according to the events seen; negative if releases arrived without their parks
+     */
+    public int getOccupied() {
+        return (int) occupied.sum();
+    }
+
+    /**
+     * Average fraction of spots occupied over the window
+     */
+    public double getWindowedOccupancy() {
+        long now = now();
+        return windowedOccupancy(bucketAt(now), now);
+    }
+
+    /**
+     * Vehicles arriving at the entry gates per minute over the window, whether or not they got a spot
+     */
+    public double getArrivalRatePerMinute() {
+        Bucket bucket = bucketAt(now());
+        return bucket.windowArrivals() * 60_000.0 / (bucketMillis * buckets);
+    }
+
+    private void record(int delta, boolean arrival) {
+        long now = now();
+        Bucket bucket = bucketAt(now);
+        while (!bucket.enter()) {
+            // Closed out under us: the event belongs to whichever bucket replaced it
+            Thread.onSpinWait();
+            bucket = bucketAt(now);
+        }
+        try {
+            if (arrival) {
+                bucket.arrivals.increment();
+            }
+            if (delta != 0) {
+                occupied.add(delta);
+                bucket.net.add(delta);
+                bucket.weighted.add(delta * (bucketMillis - elapsedIn(bucket, now)));
+            }
+        } finally {
+            bucket.exit();
+        }
+        surgeMultiplier = computeMultiplier(bucket, now);
+    }
+
+    /**
+     * The bucket {@code now} falls in, closing out any that have ended
+     */
+    private Bucket bucketAt(long now) {
+        Bucket bucket = current;
+        if (now - bucket.start < bucketMillis) {
+            return bucket;
+        }
+        synchronized (rotationLock) {
+            bucket = current;
+            if (now - bucket.start >= bucketMillis) {
+                bucket = rotate(bucket, now);
+                current = bucket;
+            }
+            return bucket;
+        }
+    }
+
+    /**
+     * Close out {@code ended} and any buckets skipped while the tracker was idle,
+     * which held the level {@code ended} finished at. Call under rotationLock.
+     */
+    private Bucket rotate(Bucket ended, long now) {
+        ended.seal();
+        long level = ended.startLevel + ended.net.sum();
+        close(ended.startLevel * bucketMillis + ended.weighted.sum(), ended.arrivals.sum());
+        long skipped = (now - ended.start) / bucketMillis - 1;
+        for (long i = 0; i < Math.min(skipped, closedArrivals.length); i++) {
+            close(level * bucketMillis, 0);
+        }
+        long start = ended.start + (skipped + 1) * bucketMillis;
+        return new Bucket(start, level, closedOccupancyTotal, closedArrivalsTotal);
+    }
+
+    private void close(long occupancyMillis, long arrivals) {
+        if (closedArrivals.length == 0) {
+            return; // Single-bucket window: only the current bucket counts
+        }
+        closedOccupancyTotal += occupancyMillis - closedOccupancyMillis[oldestClosed];
+        closedArrivalsTotal += arrivals - closedArrivals[oldestClosed];
+        closedOccupancyMillis[oldestClosed] = occupancyMillis;
+        closedArrivals[oldestClosed] = arrivals;
+        oldestClosed = (oldestClosed + 1) % closedArrivals.length;
+    }
+
+    private long elapsedIn(Bucket bucket, long now) {
+        return Math.max(0, Math.min(bucketMillis, now - bucket.start));
+    }
+
+    private double windowedOccupancy(Bucket bucket, long now) {
+        long elapsed = elapsedIn(bucket, now);
+        // Spot-millis so far this bucket: changes were weighted to the bucket's end, not to now
+        long partial = bucket.startLevel * elapsed + bucket.weighted.sum() - (bucketMillis - elapsed) * bucket.net.sum();
+        return (bucket.closedOccupancyMillis + partial) / ((double) capacity * bucketMillis * buckets);
+    }
+
+    /**
+     * Demand is the larger of the instantaneous and windowed occupancy, plus
+     * arrival pressure: vehicles that came to a gate during the window, as a
+     * share of capacity, scaled by the room left. The multiplier ramps linearly
+     * from 1.0 at the threshold to {@code maxSurge} at full demand.
+     */
+    private double computeMultiplier(Bucket bucket, long now) {
+        double current = occupied.sum() / (double) capacity;
+        double arrivalPressure = Math.min(1.0, bucket.windowArrivals() / (double) capacity) * (1.0 - current);
+        double demand = Math.max(current, windowedOccupancy(bucket, now)) + arrivalPressure;
+        if (demand <= surgeThreshold) {
+            return 1.0;
+        }
+        double ramp = Math.min(1.0, (demand - surgeThreshold) / (1.0 - surgeThreshold));
+        return 1.0 + (maxSurge - 1.0) * ramp;
+    }
+
+    private long now() {
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * The bucket events are currently added to, carrying the totals of the
+     * closed buckets still in the window when it started
+     */
+    private static final class Bucket {
+        final long start;
+        final long startLevel;
+        final long closedOccupancyMillis;
+        final long closedArrivals;
+        final LongAdder arrivals = new LongAdder();
+        final LongAdder net = new LongAdder();
+        // Sum of delta * (bucket end - event time) over this bucket's level changes
+        final LongAdder weighted = new LongAdder();
+        // Events adding to this bucket right now; rotation waits for them once sealed
+        final AtomicInteger writers = new AtomicInteger();
+        volatile boolean sealed;
+
+        Bucket(long start, long startLevel, long closedOccupancyMillis, long closedArrivals) {
+            this.start = start;
+            this.startLevel = startLevel;
+            this.closedOccupancyMillis = closedOccupancyMillis;
+            this.closedArrivals = closedArrivals;
+        }
+
+        /**
+         * Start adding an event; false if the bucket has been closed out
+         */
+        boolean enter() {
+            writers.incrementAndGet();
+            if (sealed) {
+                writers.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            writers.decrementAndGet();
+        }
+
+        /**
+         * Turn away new events and wait for those already adding, so the adders can be summed
+         */
+        void seal() {
+            sealed = true;
+            while (writers.get() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+        long windowArrivals() {
+            return closedArrivals + arrivals.sum();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package service;
+
+import enums.PaymentMode;
+import models.ParkingTicket;
+
+/**
+ * Callback for completed payments.
+ * Invoked synchronously on the paying thread, so implementations must not block.
+ */
+public interface PaymentListener {
+    void onPaid(ParkingTicket ticket, PaymentMode mode, double amount);
+}
@@ -2,19 +2,101 @@ package service;
 
 import enums.PaymentMode;
 import helpers.PricingStrategy;
+import helpers.TimeSource;
 import models.ParkingTicket;
+import permits.PermitRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
 
 public class PaymentService {
     private final PricingStrategy pricingStrategy;
+    private final DoubleSupplier surgeMultiplier;
+    private final List<PaymentListener> listeners = new CopyOnWriteArrayList<>();
+    private final IdempotencyCache<Double> payments;
+    private volatile boolean verbose = true;
+    private volatile PermitRegistry permits;
 
     public PaymentService(PricingStrategy pricingStrategy) {
+        this(pricingStrategy, () -> 1.0);
+    }
+
+    /**
+     * @param surgeMultiplier lock-free source of the current surge multiplier,
+     *                        e.g. {@code occupancyTracker::getSurgeMultiplier}
+     */
+    public PaymentService(PricingStrategy pricingStrategy, DoubleSupplier surgeMultiplier) {
+        this(pricingStrategy, surgeMultiplier, TimeSource.defaultSource());
+    }
+
+    /**
+     * @param clock time source for payment retry windows; parked time comes from the ticket's own clock
+     */
+    public PaymentService(PricingStrategy pricingStrategy, DoubleSupplier surgeMultiplier, TimeSource clock) {
         this.pricingStrategy = pricingStrategy;
+        this.surgeMultiplier = surgeMultiplier;
+        this.payments = new IdempotencyCache<>(50_000, Duration.ofMinutes(15), clock);
+    }
+
+    /**
+     * Charge for the ticket; permit holders are charged nothing. A ticket that is
+     * already paid or closed is not charged again: the amount recorded the first
+     * time is returned and listeners are not notified.
+     */
+    public double pay(ParkingTicket ticket, PaymentMode mode) {
+        if (ticket.isPaid()) {
+            return ticket.getPaidAmount();
+        }
+        double amount;
+        PermitRegistry registry = permits;
+        if (registry != null && registry.isEntitled(ticket)) {
+            if (!ticket.coverByPermit()) {
+                return ticket.getPaidAmount(); // Settled concurrently
+            }
+            amount = 0;
+        } else {
+            amount = pricingStrategy.calculate(ticket, surgeMultiplier.getAsDouble());
+            if (!ticket.markPaid(amount, mode)) {
+                return ticket.getPaidAmount(); // Another payment got there first
+            }
+        }
+        if (verbose) {
+            System.out.println("Paid $" + amount + " via " + mode);
+        }
+        for (PaymentListener listener : listeners) {
+            listener.onPaid(ticket, mode, amount);
+        }
+        return amount;
+    }
+
+    /**
+     * Retry-safe payment: a repeated request id returns the amount charged the
+     * first time instead of charging again
+     */
+    public double payOnce(String requestId, ParkingTicket ticket, PaymentMode mode) {
+        return payments.execute(requestId, () -> pay(ticket, mode));
+    }
+
+    /**
+     * Turn receipt printing on or off, e.g. for simulations and benchmarks
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Check tickets against the lot's permits before charging
+     */
+    public void setPermitRegistry(PermitRegistry permits) {
+        this.permits = permits;
     }
 
-    public void pay(ParkingTicket ticket, PaymentMode mode) {
-        long hours = ticket.getParkedHours();
-        double amount = pricingStrategy.calculate(hours);
-        ticket.markPaid();
-        System.out.println("Paid $" + amount + " via " + mode);
+    /**
+     * Register a listener notified after every successful payment
+     */
+    public void addListener(PaymentListener listener) {
+        listeners.add(listener);
     }
 }
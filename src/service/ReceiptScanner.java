@@ -0,0 +1,56 @@
+package service;
+
+import codec.DecodedTicket;
+import codec.TicketCodec;
+import helpers.TicketIds;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Exit-gate side of the binary receipt: decodes a scanned receipt and finds the
+ * live ticket it was printed for. Each gate owns its scanner, which reuses one
+ * decode holder, so instances are not thread-safe.
+ */
+public class ReceiptScanner {
+    private final ParkingLot lot;
+    private final VehicleRegistry registry;
+    private final DecodedTicket decoded = new DecodedTicket();
+
+    /**
+     * @param registry active tickets, e.g. a registry added to the lot as a listener
+     */
+    public ReceiptScanner(ParkingLot lot, VehicleRegistry registry) {
+        this.lot = lot;
+        this.registry = registry;
+    }
+
+    /**
+     * @return the ticket the receipt was issued for, or null if no such ticket is
+     * active: a receipt for a vehicle that has left, or one that was tampered with
+     */
+    public ParkingTicket resolve(ByteBuffer receipt) {
+        TicketCodec.decode(receipt, decoded);
+        // Look up by spot rather than plate so a scan never builds a String
+        ParkingFloor floor = lot.getFloor(decoded.getFloorId());
+        ParkingSpot spot = floor == null ? null : floor.findSpot(decoded.getSpotIndex());
+        ParkingTicket ticket = spot == null ? null : registry.lookup(spot);
+        if (ticket == null || ticket.isExited()) {
+            return null;
+        }
+        boolean matches = decoded.plateEquals(ticket.getVehicle().getNumber())
+                && ticket.getVehicle().getType() == decoded.getVehicleType()
+                && TicketIds.parse(ticket.getTicketId()) == decoded.getTicketId();
+        return matches ? ticket : null;
+    }
+
+    /**
+     * The last receipt decoded by this scanner
+     */
+    public DecodedTicket getLastDecoded() {
+        return decoded;
+    }
+}
@@ -0,0 +1,216 @@
+package service;
+
+import enums.SpotType;
+import managers.VehicleManager;
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Lot-wide lookups answered from secondary indexes instead of walking the managers:
+ * plate to ticket ("where is my car") and, per floor and {@link SpotType}, the free
+ * spots ordered by index.
+ *
+ * Register the service as a lot listener; the free indexes then follow park,
+ * release and maintenance events. A floor's free index is created and seeded from
+ * its spots when the lot reports the floor ({@link #onFloorAdded}, which also covers
+ * floors added before the service), and dropped when the floor is removed from the
+ * lot; events and queries for a floor without an index are ignored. Plates are
+ * looked up in a shared {@link VehicleRegistry}.
+ *
+ * Queries read concurrent maps and take no lock. Events are delivered after the
+ * manager lock is released, so an index entry can briefly lag the spot; free
+ * spots are re-checked before they are returned. A returned spot is a hint, not
+ * a reservation: parking still goes through the floor.
+ */
+public class SpotQueryService implements ParkingEventListener {
+    private static final SpotType[] SPOT_TYPES = SpotType.values();
+
+    private final ParkingLot lot;
+    private final VehicleRegistry registry;
+    private final ConcurrentHashMap<ParkingFloor, FloorIndex> floors = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry active tickets, e.g. a registry added to the lot as a listener
+     */
+    public SpotQueryService(ParkingLot lot, VehicleRegistry registry) {
+        this.lot = lot;
+        this.registry = registry;
+    }
+
+    /**
+     * The active ticket for a plate, or null if the vehicle is not parked here
+     */
+    public ParkingTicket locate(String plate) {
+        return registry.lookup(plate);
+    }
+
+    /**
+     * Free spot of the given type on floors {@code fromFloorId..toFloorId}, searching
+     * outward from {@code nearFloorId} and taking the lowest spot index on each floor
+     *
+     * @return a spot that was free when checked, or null if none is
+     */
+    public ParkingSpot findNearestFree(SpotType type, int fromFloorId, int toFloorId, int nearFloorId) {
+        List<ParkingFloor> candidates = new ArrayList<>();
+        for (ParkingFloor floor : lot.getFloors()) {
+            if (floor.getId() >= fromFloorId && floor.getId() <= toFloorId) {
+                candidates.add(floor);
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(
+                Math.abs(a.getId() - nearFloorId), Math.abs(b.getId() - nearFloorId)));
+        for (ParkingFloor floor : candidates) {
+            FloorIndex index = floors.get(floor);
+            ParkingSpot spot = index == null ? null : firstFree(index.free(type));
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Up to {@code limit} free spots of a type on one floor, lowest index first
+     */
+    public List<ParkingSpot> findFree(ParkingFloor floor, SpotType type, int limit) {
+        List<ParkingSpot> found = new ArrayList<>();
+        FloorIndex index = floors.get(floor);
+        if (index == null) {
+            return found;
+        }
+        for (ParkingSpot spot : index.free(type).values()) {
+            if (found.size() >= limit) {
+                break;
+            }
+            if (spot.isFree()) {
+                found.add(spot);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void onPark(ParkingFloor floor, ParkingTicket ticket) {
+        FloorIndex index = floors.get(floor);
+        if (index == null) {
+            return;
+        }
+        ParkingSpot spot = ticket.getSpot();
+        if (index.free(spot.getSpotType()).remove(spot.getIndex(), spot)) {
+            // A release that overtook this event may have found the entry still present
+            index.markIfFree(spot);
+        }
+    }
+
+    @Override
+    public void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+        markIfFree(floor, ticket.getSpot());
+    }
+
+    @Override
+    public void onSpotAdded(ParkingFloor floor, ParkingSpot spot) {
+        markIfFree(floor, spot);
+    }
+
+    @Override
+    public void onSpotEnabled(ParkingFloor floor, ParkingSpot spot) {
+        markIfFree(floor, spot);
+    }
+
+    @Override
+    public void onSpotDisabled(ParkingFloor floor, ParkingSpot spot) {
+        unmark(floor, spot);
+    }
+
+    @Override
+    public void onSpotRemoved(ParkingFloor floor, ParkingSpot spot) {
+        unmark(floor, spot);
+    }
+
+    @Override
+    public void onFloorAdded(ParkingFloor floor) {
+        FloorIndex index = new FloorIndex();
+        if (floors.putIfAbsent(floor, index) == null) {
+            // Published empty first so events racing the seed land in it; a spot the
+            // seed adds after its park event is stale and dropped by the free re-check
+            index.seed(floor);
+        }
+    }
+
+    @Override
+    public void onFloorRemoved(ParkingFloor floor) {
+        floors.remove(floor);
+    }
+
+    private void markIfFree(ParkingFloor floor, ParkingSpot spot) {
+        FloorIndex index = floors.get(floor);
+        if (index != null) {
+            index.markIfFree(spot);
+        }
+    }
+
+    private void unmark(ParkingFloor floor, ParkingSpot spot) {
+        FloorIndex index = floors.get(floor);
+        if (index != null) {
+            index.free(spot.getSpotType()).remove(spot.getIndex(), spot);
+        }
+    }
+
+    /**
+     * First indexed spot that is really free, dropping entries found to be stale
+     */
+    private static ParkingSpot firstFree(ConcurrentSkipListMap<Integer, ParkingSpot> free) {
+        for (Map.Entry<Integer, ParkingSpot> entry : free.entrySet()) {
+            ParkingSpot spot = entry.getValue();
+            if (spot.isFree()) {
+                return spot;
+            }
+            if (free.remove(entry.getKey(), spot) && spot.isFree()) {
+                // Released while we looked: its release event may already have run
+                free.put(entry.getKey(), spot);
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Free spots of one floor, one ordered map per spot type
+     */
+    private static final class FloorIndex {
+        private final List<ConcurrentSkipListMap<Integer, ParkingSpot>> freeByType = new ArrayList<>();
+
+        FloorIndex() {
+            for (SpotType type : SPOT_TYPES) {
+                freeByType.add(new ConcurrentSkipListMap<>());
+            }
+        }
+
+        void seed(ParkingFloor floor) {
+            for (VehicleManager manager : floor.getDistinctManagers()) {
+                for (ParkingSpot spot : manager.getSpots()) {
+                    markIfFree(spot);
+                }
+            }
+        }
+
+        void markIfFree(ParkingSpot spot) {
+            if (spot.isFree()) {
+                free(spot.getSpotType()).put(spot.getIndex(), spot);
+            }
+        }
+
+        ConcurrentSkipListMap<Integer, ParkingSpot> free(SpotType type) {
+            return freeByType.get(type.ordinal());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+import models.ParkingEventListener;
+import models.ParkingFloor;
+import models.ParkingSpot;
+import models.ParkingTicket;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active tickets keyed by plate, so an exit read can find the ticket issued at entry.
+ * Register it as a lot listener to track every ticket, whichever path issued it.
+ */
+public class VehicleRegistry implements ParkingEventListener {
+    private final ConcurrentHashMap<String, ParkingTicket> activeTickets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ParkingSpot, ParkingTicket> bySpot = new ConcurrentHashMap<>();
+
+    /**
+     * Record a newly issued ticket; returns the ticket previously held by the plate, if any
+     */
+    public ParkingTicket register(ParkingTicket ticket) {
+        bySpot.put(ticket.getSpot(), ticket);
+        return activeTickets.put(ticket.getVehicle().getNumber(), ticket);
+    }
+
+    public ParkingTicket lookup(String plate) {
+        return activeTickets.get(plate);
+    }
+
+    /**
+     * The active ticket parked in a spot, or null
+     */
+    public ParkingTicket lookup(ParkingSpot spot) {
+        return bySpot.get(spot);
+    }
+
+    /**
+     * Forget a ticket once its vehicle has left; no-op if the plate now maps to another ticket
+     */
+    public boolean remove(ParkingTicket ticket) {
+        bySpot.remove(ticket.getSpot(), ticket);
+        return activeTickets.remove(ticket.getVehicle().getNumber(), ticket);
+    }
+
+    @Override
+    public void onPark(ParkingFloor floor, ParkingTicket ticket) {
+        register(ticket);
+    }
+
+    @Override
+    public void onRelease(ParkingFloor floor, ParkingTicket ticket) {
+        remove(ticket);
+    }
+
+    public int size() {
+        return activeTickets.size();
+    }
+}
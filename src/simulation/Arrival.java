@@ -0,0 +1,48 @@
+package simulation;
+
+import enums.VehicleType;
+
+/**
+ * One generated vehicle arrival; times are milliseconds since simulation start
+ */
+public class Arrival {
+    private final long time;
+    private final String plate;
+    private final VehicleType type;
+    private final int entryGate;
+    private final int exitGate;
+    private final long dwellMillis;
+
+    Arrival(long time, String plate, VehicleType type, int entryGate, int exitGate, long dwellMillis) {
+        this.time = time;
+        this.plate = plate;
+        this.type = type;
+        this.entryGate = entryGate;
+        this.exitGate = exitGate;
+        this.dwellMillis = dwellMillis;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    public VehicleType getType() {
+        return type;
+    }
+
+    public int getEntryGate() {
+        return entryGate;
+    }
+
+    public int getExitGate() {
+        return exitGate;
+    }
+
+    public long getDwellMillis() {
+        return dwellMillis;
+    }
+}
@@ -0,0 +1,323 @@
+package simulation;
+
+import config.LotTopology;
+import config.TopologyLoader;
+import enums.PaymentMode;
+import helpers.HourlyPricingStrategy;
+import helpers.ManualTimeSource;
+import helpers.TimeSource;
+import models.EntryPanel;
+import models.ExitPanel;
+import models.InfoPortal;
+import models.ParkingFloor;
+import models.ParkingLot;
+import models.ParkingTicket;
+import models.Vehicle;
+import service.PaymentService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Seeded load simulator driving the real {@link EntryPanel}, {@link InfoPortal}
+ * and {@link ExitPanel} against a lot built from a {@link LotTopology}.
+ *
+ * Each entry gate is a single FIFO server with a fixed service time; a driver
+ * who would wait longer than the patience limit gives up. A vehicle that finds
+ * its gate's floor full tries the other floors before being turned away.
+ *
+ * Two modes share the same arrival schedule:
+ * <ul>
+ *   <li>{@link #runFastForward} - discrete-event, single-threaded and fully
+ *       deterministic; a week of a 10k-spot lot runs in seconds. Tickets and
+ *       payments read a {@link ManualTimeSource} stepped to each event's time,
+ *       so parked hours and fees match the simulated dwell.</li>
+ *   <li>{@link #runRealTime} - one thread per gate with time compressed by a
+ *       speed-up factor, exercising the managers' locking under real contention</li>
+ * </ul>
+ */
+public class ParkingSimulator {
+    private static final PaymentMode[] PAYMENT_MODES = PaymentMode.values();
+    // Simulated time 0 is Monday 1 January 2024, 00:00 local time
+    private static final long EPOCH_BASE_MILLIS =
+            LocalDate.of(2024, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    private final LotTopology topology;
+    private final TrafficProfile profile;
+    private final long seed;
+    private long gateServiceMillis = 8_000;
+    private long patienceMillis = 5 * 60_000;
+    private double startHour;
+
+    public ParkingSimulator(LotTopology topology, TrafficProfile profile, long seed) {
+        this.topology = topology;
+        this.profile = profile;
+        this.seed = seed;
+    }
+
+    /**
+     * Time a gate spends on each vehicle (ticketing, barrier)
+     */
+    public ParkingSimulator withGateServiceTime(Duration serviceTime) {
+        this.gateServiceMillis = serviceTime.toMillis();
+        return this;
+    }
+
+    /**
+     * Longest a driver will queue at a gate before leaving
+     */
+    public ParkingSimulator withPatience(Duration patience) {
+        this.patienceMillis = patience.toMillis();
+        return this;
+    }
+
+    /**
+     * Start the simulated clock this many hours after Monday 00:00
+     */
+    public ParkingSimulator withStartHour(double startHour) {
+        this.startHour = startHour;
+        return this;
+    }
+
+    /**
+     * Run the simulation as fast as possible on the calling thread
+     */
+    public SimulationReport runFastForward(Duration simulated) {
+        long wallStart = System.nanoTime();
+        ManualTimeSource clock = new ManualTimeSource(EPOCH_BASE_MILLIS);
+        Site site = new Site();
+        site.useClock(clock);
+        long end = simulated.toMillis();
+        List<Arrival> arrivals = generate(simulated, site);
+        SimulationReport report = new SimulationReport("fast-forward", topology.getCapacity());
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+
+        PriorityQueue<Event> events = new PriorityQueue<>(
+                Comparator.comparingLong((Event e) -> e.time).thenComparingLong(e -> e.sequence));
+        long[] gateFreeAt = new long[site.entries.size()];
+        long sequence = 0;
+
+        for (Arrival arrival : arrivals) {
+            sequence = processUntil(events, arrival.getTime(), clock, site, report, random, sequence);
+            report.recordArrival();
+            int gate = arrival.getEntryGate();
+            long start = Math.max(arrival.getTime(), gateFreeAt[gate]);
+            if (start - arrival.getTime() > patienceMillis) {
+                report.recordRejectedQueue();
+                continue;
+            }
+            gateFreeAt[gate] = start + gateServiceMillis;
+            events.add(new Event(start + gateServiceMillis, sequence++, arrival, null,
+                    (start - arrival.getTime()) / 1000.0));
+        }
+        processUntil(events, end, clock, site, report, random, sequence);
+        for (Event event : events) {
+            if (event.ticket == null) {
+                report.recordUnserved(); // Still at the gate when the run ended
+            }
+        }
+        report.finish(end, (System.nanoTime() - wallStart) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Run the simulation against the wall clock with one thread per gate.
+     * {@code speedUp} simulated milliseconds pass per real millisecond.
+     */
+    public SimulationReport runRealTime(Duration simulated, double speedUp) throws InterruptedException {
+        Site site = new Site();
+        List<Arrival> arrivals = generate(simulated, site);
+        SimulationReport report = new SimulationReport("real-time x" + speedUp, topology.getCapacity());
+
+        List<ExecutorService> entryGates = new ArrayList<>();
+        for (int i = 0; i < site.entries.size(); i++) {
+            entryGates.add(Executors.newSingleThreadExecutor());
+        }
+        List<ExecutorService> exitGates = new ArrayList<>();
+        for (int i = 0; i < site.exits.size(); i++) {
+            exitGates.add(Executors.newSingleThreadExecutor());
+        }
+        ScheduledThreadPoolExecutor departures = new ScheduledThreadPoolExecutor(2);
+        departures.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+        long startNanos = System.nanoTime();
+        site.useClock(() -> EPOCH_BASE_MILLIS + simulatedNow(startNanos, speedUp));
+        for (Arrival arrival : arrivals) {
+            long dueNanos = startNanos + (long) (arrival.getTime() / speedUp * 1_000_000);
+            sleepUntil(dueNanos);
+            report.recordArrival();
+            entryGates.get(arrival.getEntryGate()).execute(() ->
+                    admitRealTime(arrival, dueNanos, speedUp, startNanos, site, report, departures, exitGates));
+        }
+        sleepUntil(startNanos + (long) (simulated.toMillis() / speedUp * 1_000_000));
+
+        // Entry gates first: they schedule departures. Vehicles still queued at a gate
+        // when the run ends are counted as unserved rather than dropped
+        for (ExecutorService gate : entryGates) {
+            for (int i = gate.shutdownNow().size(); i > 0; i--) {
+                report.recordUnserved();
+            }
+            gate.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        // Departures not yet due are dropped, leaving those vehicles parked; the ones
+        // already handed to an exit gate must finish before the exit gates stop
+        departures.shutdown();
+        departures.awaitTermination(10, TimeUnit.SECONDS);
+        for (ExecutorService gate : exitGates) {
+            gate.shutdown();
+            gate.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        report.finish(simulated.toMillis(), (System.nanoTime() - startNanos) / 1_000_000);
+        return report;
+    }
+
+    private void admitRealTime(Arrival arrival, long dueNanos, double speedUp, long startNanos, Site site,
+                               SimulationReport report, ScheduledExecutorService departures,
+                               List<ExecutorService> exitGates) {
+        double waitMillis = (System.nanoTime() - dueNanos) / 1e6 * speedUp;
+        if (waitMillis > patienceMillis) {
+            report.recordRejectedQueue();
+            return;
+        }
+        sleepUntil(System.nanoTime() + (long) (gateServiceMillis / speedUp * 1_000_000));
+        ParkingTicket ticket = park(site, arrival);
+        if (ticket == null) {
+            report.recordRejectedFull();
+            return;
+        }
+        report.recordParked(simulatedNow(startNanos, speedUp), waitMillis / 1000.0);
+        ExecutorService exitGate = exitGates.get(arrival.getExitGate());
+        Random random = new Random(seed ^ arrival.getTime());
+        departures.schedule(() -> exitGate.execute(() -> {
+                    double amount = leave(site, arrival, ticket, random);
+                    report.recordExit(simulatedNow(startNanos, speedUp), amount);
+                }),
+                (long) (arrival.getDwellMillis() / speedUp * 1000), TimeUnit.MICROSECONDS);
+    }
+
+    private long processUntil(PriorityQueue<Event> events, long time, ManualTimeSource clock, Site site,
+                              SimulationReport report, Random random, long sequence) {
+        while (!events.isEmpty() && events.peek().time <= time) {
+            Event event = events.poll();
+            clock.setTime(EPOCH_BASE_MILLIS + event.time);
+            Arrival arrival = event.arrival;
+            if (event.ticket == null) {
+                ParkingTicket ticket = park(site, arrival);
+                if (ticket == null) {
+                    report.recordRejectedFull();
+                    continue;
+                }
+                report.recordParked(event.time, event.waitSeconds);
+                events.add(new Event(event.time + arrival.getDwellMillis(), sequence++, arrival, ticket, 0));
+            } else {
+                report.recordExit(event.time, leave(site, arrival, event.ticket, random));
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Try the gate's own floor first, then every other floor in order
+     */
+    private ParkingTicket park(Site site, Arrival arrival) {
+        EntryPanel gate = site.entries.get(arrival.getEntryGate());
+        Vehicle vehicle = new Vehicle(arrival.getPlate(), arrival.getType());
+        ParkingTicket ticket = gate.issueTicket(vehicle);
+        for (int i = 0; ticket == null && i < site.floors.size(); i++) {
+            ParkingFloor floor = site.floors.get(i);
+            if (floor != gate.getFloor()) {
+                ticket = gate.issueTicket(floor, vehicle);
+            }
+        }
+        return ticket;
+    }
+
+    private double leave(Site site, Arrival arrival, ParkingTicket ticket, Random random) {
+        double amount = site.portal.pay(ticket, PAYMENT_MODES[random.nextInt(PAYMENT_MODES.length)]);
+        site.exits.get(arrival.getExitGate()).exit(ticket);
+        return amount;
+    }
+
+    private List<Arrival> generate(Duration simulated, Site site) {
+        return new ArrivalGenerator(profile, seed)
+                .generate(startHour, simulated.toMillis() / 3_600_000.0, site.entries.size(), site.exits.size());
+    }
+
+    private static long simulatedNow(long startNanos, double speedUp) {
+        return (long) ((System.nanoTime() - startNanos) / 1e6 * speedUp);
+    }
+
+    private static void sleepUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * A freshly built lot with its gates; every run gets its own
+     */
+    private final class Site {
+        final ParkingLot lot;
+        final List<ParkingFloor> floors;
+        final List<EntryPanel> entries = new ArrayList<>();
+        final List<ExitPanel> exits = new ArrayList<>();
+        final PaymentService paymentService = new PaymentService(new HourlyPricingStrategy());
+        final InfoPortal portal = new InfoPortal(paymentService);
+
+        Site() {
+            TopologyLoader.LoadedLot loaded = new TopologyLoader().load(topology);
+            lot = loaded.getLot();
+            floors = lot.getFloors();
+            entries.addAll(loaded.getEntryPanels().values());
+            exits.addAll(loaded.getExitPanels().values());
+            for (ParkingFloor floor : floors) {
+                if (loaded.getEntryPanels().isEmpty()) {
+                    entries.add(new EntryPanel("ENTRY-" + floor.getName(), floor));
+                }
+                if (loaded.getExitPanels().isEmpty()) {
+                    exits.add(new ExitPanel("EXIT-" + floor.getName(), floor));
+                }
+            }
+            paymentService.setVerbose(false);
+            for (ExitPanel exit : exits) {
+                exit.setVerbose(false);
+            }
+        }
+
+        /**
+         * Stamp tickets with simulated rather than wall-clock time
+         */
+        void useClock(TimeSource clock) {
+            lot.setTimeSource(clock);
+        }
+    }
+
+    private static final class Event {
+        final long time;
+        final long sequence;
+        final Arrival arrival;
+        final ParkingTicket ticket;
+        final double waitSeconds;
+
+        Event(long time, long sequence, Arrival arrival, ParkingTicket ticket, double waitSeconds) {
+            this.time = time;
+            this.sequence = sequence;
+            this.arrival = arrival;
+            this.ticket = ticket;
+            this.waitSeconds = waitSeconds;
+        }
+    }
+}
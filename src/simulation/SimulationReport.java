@@ -0,0 +1,142 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a simulation run. Record methods are synchronized so the
+ * real-time mode can feed it from many gate threads.
+ */
+public class SimulationReport {
+    private final String mode;
+    private final int capacity;
+    private long arrivals;
+    private long parked;
+    private long rejectedFull;
+    private long rejectedQueue;
+    private long unserved;
+    private long exits;
+    private double revenue;
+    private int occupied;
+    private int peakOccupied;
+    private long lastOccupancyChange;
+    private double occupancySpotMillis;
+    private double[] waitSeconds = new double[1024];
+    private int waitCount;
+    private long simulatedMillis;
+    private long wallMillis;
+
+    SimulationReport(String mode, int capacity) {
+        this.mode = mode;
+        this.capacity = capacity;
+    }
+
+    synchronized void recordArrival() {
+        arrivals++;
+    }
+
+    synchronized void recordParked(long time, double waitSecs) {
+        parked++;
+        if (waitCount == waitSeconds.length) {
+            waitSeconds = Arrays.copyOf(waitSeconds, waitCount * 2);
+        }
+        waitSeconds[waitCount++] = waitSecs;
+        changeOccupancy(time, 1);
+    }
+
+    synchronized void recordRejectedFull() {
+        rejectedFull++;
+    }
+
+    synchronized void recordRejectedQueue() {
+        rejectedQueue++;
+    }
+
+    /**
+     * An arrival still waiting at its gate when the run ended
+     */
+    synchronized void recordUnserved() {
+        unserved++;
+    }
+
+    synchronized void recordExit(long time, double amount) {
+        exits++;
+        revenue += amount;
+        changeOccupancy(time, -1);
+    }
+
+    synchronized void finish(long simulatedMillis, long wallMillis) {
+        changeOccupancy(simulatedMillis, 0);
+        this.simulatedMillis = simulatedMillis;
+        this.wallMillis = wallMillis;
+    }
+
+    private void changeOccupancy(long time, int delta) {
+        if (time > lastOccupancyChange) {
+            occupancySpotMillis += (double) occupied * (time - lastOccupancyChange);
+            lastOccupancyChange = time;
+        }
+        occupied += delta;
+        peakOccupied = Math.max(peakOccupied, occupied);
+    }
+
+    public synchronized long getArrivals() {
+        return arrivals;
+    }
+
+    public synchronized long getParked() {
+        return parked;
+    }
+
+    /**
+     * Arrivals still waiting at a gate when the run ended; together with parked and
+     * rejected vehicles they account for every arrival
+     */
+    public synchronized long getUnserved() {
+        return unserved;
+    }
+
+    public synchronized double getRejectionRate() {
+        return arrivals == 0 ? 0 : (rejectedFull + rejectedQueue) / (double) arrivals;
+    }
+
+    /**
+     * Vehicles admitted per simulated hour
+     */
+    public synchronized double getThroughputPerHour() {
+        return simulatedMillis == 0 ? 0 : parked / (simulatedMillis / 3_600_000.0);
+    }
+
+    /**
+     * Time-weighted average fraction of capacity occupied
+     */
+    public synchronized double getUtilisation() {
+        return simulatedMillis == 0 ? 0 : occupancySpotMillis / ((double) capacity * simulatedMillis);
+    }
+
+    /**
+     * Gate queueing latency percentile in seconds, e.g. {@code 0.99}
+     */
+    public synchronized double getWaitPercentile(double percentile) {
+        if (waitCount == 0) {
+            return 0;
+        }
+        double[] sorted = Arrays.copyOf(waitSeconds, waitCount);
+        Arrays.sort(sorted);
+        return sorted[Math.min(waitCount - 1, (int) Math.ceil(percentile * waitCount) - 1)];
+    }
+
+    public synchronized void print() {
+        System.out.println("---- Simulation Report (" + mode + ") ----");
+        System.out.printf("Simulated: %.1f h in %d ms wall time%n", simulatedMillis / 3_600_000.0, wallMillis);
+        System.out.println("Arrivals: " + arrivals + ", Parked: " + parked + ", Exits: " + exits);
+        System.out.printf("Rejected: %d full, %d queue timeout (%.2f%%)%n",
+                rejectedFull, rejectedQueue, getRejectionRate() * 100);
+        System.out.println("At end: " + unserved + " still queued at a gate, " + (parked - exits) + " still parked");
+        System.out.printf("Throughput: %.1f vehicles/hour%n", getThroughputPerHour());
+        System.out.printf("Gate wait: p50 %.1fs, p99 %.1fs, max %.1fs%n",
+                getWaitPercentile(0.5), getWaitPercentile(0.99), getWaitPercentile(1.0));
+        System.out.printf("Utilisation: %.1f%% average, peak %d / %d spots%n",
+                getUtilisation() * 100, peakOccupied, capacity);
+        System.out.printf("Revenue: $%.2f%n", revenue);
+    }
+}